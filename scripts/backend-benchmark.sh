@@ -0,0 +1,53 @@
+#!/usr/bin/env bash
+#
+# Backend benchmark: runs the billing workload (benchmark profile) against each database
+# backend profile and reports throughput per phase.
+#
+#   sqlite   fresh file under target/backend-bench
+#   h2       fresh H2 file database under target/backend-bench
+#   mysql    only when MYSQL_URL is set (MYSQL_USER / MYSQL_PASSWORD, default billing/billing);
+#            use an empty scratch schema, the workload writes to it
+#
+# Usage: scripts/backend-benchmark.sh [bills]   (default 2000)
+#        SKIP_BUILD=1 scripts/backend-benchmark.sh      reuse target/ as is
+#
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+BILLS="${1:-2000}"
+JAR="target/project-0.0.1-SNAPSHOT.jar"
+WORK="target/backend-bench"
+
+if [[ -z "${SKIP_BUILD:-}" ]]; then
+    ./mvnw -B -q -DskipTests package
+fi
+
+rm -rf "$WORK"
+mkdir -p "$WORK"
+
+run() {
+    local backend="$1"
+    shift
+    java -jar "$JAR" "--spring.profiles.active=$backend,benchmark" \
+        "--app.benchmark.backend=$backend" "--app.benchmark.bills=$BILLS" "$@" \
+        > "$WORK/$backend.log" 2>&1 || {
+        echo "$backend run failed, see $WORK/$backend.log" >&2
+        return 0
+    }
+    grep '^BENCH ' "$WORK/$backend.log" >> "$WORK/results.txt" || true
+}
+
+touch "$WORK/results.txt"
+run sqlite "--spring.datasource.url=jdbc:sqlite:$WORK/sqlite.db"
+run h2 "--spring.datasource.url=jdbc:h2:file:./$WORK/h2/billing"
+if [[ -n "${MYSQL_URL:-}" ]]; then
+    run mysql
+else
+    echo "MYSQL_URL not set, skipping mysql" >&2
+fi
+
+printf "%-8s %-22s %8s %10s %10s\n" "backend" "phase" "ops" "ms" "ops/s"
+while read -r _ backend phase ops ms rate; do
+    printf "%-8s %-22s %8d %10d %10s\n" "$backend" "$phase" "$ops" "$ms" "$rate"
+done < "$WORK/results.txt"
@@ -0,0 +1,87 @@
+#!/usr/bin/env bash
+#
+# Startup benchmark: time-to-first-request and resident memory per launch mode.
+#
+#   jar      plain executable jar, prod profile
+#   cds      extracted jar + class data sharing archive
+#   aot-cds  extracted jar + CDS archive + Spring AOT initializers
+#   native   GraalVM native executable (only if target/project exists,
+#            build it with ./mvnw -Pnative native:compile)
+#
+# Usage: scripts/startup-benchmark.sh [runs-per-mode]   (default 3)
+#        SKIP_BUILD=1 scripts/startup-benchmark.sh      reuse target/ as is
+#
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS="${1:-3}"
+PORT="${BENCH_PORT:-18080}"
+JAR="target/project-0.0.1-SNAPSHOT.jar"
+WORK="target/startup-bench"
+DB="$WORK/bench.db"
+
+COMMON_ARGS=(
+    "--spring.profiles.active=prod,sqlite"
+    "--server.port=$PORT"
+    "--spring.datasource.url=jdbc:sqlite:$DB"
+)
+
+if [[ -z "${SKIP_BUILD:-}" ]]; then
+    ./mvnw -B -q -Paot -DskipTests package
+fi
+
+rm -rf "$WORK"
+mkdir -p "$WORK"
+
+# Extract the jar into the layout the JVM can map a CDS archive against
+java -Djarmode=tools -jar "$JAR" extract --destination "$WORK/app" > /dev/null
+APP_JAR="$WORK/app/$(basename "$JAR")"
+
+# Training runs: boot until the context is refreshed, then dump loaded classes.
+# The first one also lets Flyway create the schema in the benchmark database.
+java -XX:ArchiveClassesAtExit="$WORK/app.jsa" -Dspring.context.exit=onRefresh \
+    -jar "$APP_JAR" "${COMMON_ARGS[@]}" > "$WORK/train.log" 2>&1
+java -XX:ArchiveClassesAtExit="$WORK/app-aot.jsa" -Dspring.context.exit=onRefresh -Dspring.aot.enabled=true \
+    -jar "$APP_JAR" "${COMMON_ARGS[@]}" > "$WORK/train-aot.log" 2>&1
+
+# Starts a command, waits for /login to answer, prints "<ms> <rss-kb>" and stops it
+measure() {
+    local start end pid rss
+    start=$(date +%s%N)
+    "$@" > "$WORK/run.log" 2>&1 &
+    pid=$!
+    until [[ "$(curl -s -o /dev/null -w '%{http_code}' "http://localhost:$PORT/login" || true)" == "200" ]]; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "process exited before serving a request, see $WORK/run.log" >&2
+            return 1
+        fi
+        sleep 0.02
+    done
+    end=$(date +%s%N)
+    rss=$(ps -o rss= -p "$pid" | tr -d ' ')
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+    echo "$(( (end - start) / 1000000 )) $rss"
+}
+
+bench() {
+    local mode="$1"
+    shift
+    local total_ms=0 total_rss=0 result ms rss
+    for ((i = 1; i <= RUNS; i++)); do
+        result=$(measure "$@")
+        read -r ms rss <<< "$result"
+        total_ms=$((total_ms + ms))
+        total_rss=$((total_rss + rss))
+    done
+    printf "%-8s %10d %10d\n" "$mode" $((total_ms / RUNS)) $((total_rss / RUNS / 1024))
+}
+
+printf "%-8s %10s %10s\n" "mode" "first-ms" "rss-mb"
+bench jar java -jar "$JAR" "${COMMON_ARGS[@]}"
+bench cds java -XX:SharedArchiveFile="$WORK/app.jsa" -jar "$APP_JAR" "${COMMON_ARGS[@]}"
+bench aot-cds java -XX:SharedArchiveFile="$WORK/app-aot.jsa" -Dspring.aot.enabled=true -jar "$APP_JAR" "${COMMON_ARGS[@]}"
+if [[ -x target/project ]]; then
+    bench native target/project "${COMMON_ARGS[@]}"
+fi
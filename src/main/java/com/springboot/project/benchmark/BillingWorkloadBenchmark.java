@@ -0,0 +1,144 @@
+package com.springboot.project.benchmark;
+
+import com.springboot.project.dto.BillStatusTransitionRequest;
+import com.springboot.project.service.BillRecalculationService;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.beans.factory.annotation.Value;
+import com.springboot.project.service.CustomerService;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.CommandLineRunner;
+import com.springboot.project.service.BillService;
+import com.springboot.project.service.ItemService;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.data.domain.Sort;
+import com.springboot.project.entity.BillItem;
+import com.springboot.project.entity.Customer;
+import com.springboot.project.entity.Item;
+import com.springboot.project.entity.Bill;
+import lombok.RequiredArgsConstructor;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Runs the same billing workload against whichever backend profile is active, prints one
+// result line per phase and exits. Driven by scripts/backend-benchmark.sh.
+@Component
+@Profile("benchmark")
+@RequiredArgsConstructor
+public class BillingWorkloadBenchmark implements CommandLineRunner {
+
+    private static final int ITEMS_PER_BILL = 3;
+
+    private final CustomerService customerService;
+    private final ItemService itemService;
+    private final BillService billService;
+    private final BillRecalculationService billRecalculationService;
+    private final ConfigurableApplicationContext context;
+
+    @Value("${app.benchmark.backend:unknown}")
+    private String backend;
+
+    @Value("${app.benchmark.customers:200}")
+    private int customerCount;
+
+    @Value("${app.benchmark.items:100}")
+    private int itemCount;
+
+    @Value("${app.benchmark.bills:2000}")
+    private int billCount;
+
+    @Value("${app.benchmark.reads:2000}")
+    private int readCount;
+
+    private final Random random = new Random(42);
+
+    @Override
+    public void run(String... args) {
+        // Unique keys per run, so the workload can also be pointed at a non-empty database
+        String run = Long.toString(System.currentTimeMillis(), 36);
+
+        List<Customer> customers = new ArrayList<>();
+        phase("insert-customers", customerCount, () -> {
+            for (int i = 0; i < customerCount; i++) {
+                customers.add(customerService.saveCustomer(new Customer(
+                        "BC-" + run + "-" + i, "Customer " + i, i + " Main Street", "0700000" + i, null)));
+            }
+        });
+
+        List<Item> items = new ArrayList<>();
+        phase("insert-items", itemCount, () -> {
+            for (int i = 0; i < itemCount; i++) {
+                items.add(itemService.saveItem(new Item(
+                        "BI-" + run + "-" + i, "Item " + run + "-" + i,
+                        BigDecimal.valueOf(100 + random.nextInt(9900), 2), 1000, null)));
+            }
+        });
+
+        List<Long> billIds = new ArrayList<>();
+        phase("insert-bills", billCount, () -> {
+            for (int i = 0; i < billCount; i++) {
+                billIds.add(billService.saveBill(newBill(customers.get(random.nextInt(customers.size())), items)).getId());
+            }
+        });
+
+        phase("read-bill-pages", readCount, () -> {
+            PageRequest firstPage = PageRequest.of(0, 10, Sort.by("createdAt").descending());
+            for (int i = 0; i < readCount; i++) {
+                billService.findAllBills(firstPage).getContent();
+            }
+        });
+
+        phase("read-customer-details", readCount, () -> {
+            for (int i = 0; i < readCount; i++) {
+                Long customerId = customers.get(random.nextInt(customers.size())).getId();
+                customerService.getCustomerSummary(customerId);
+                customerService.getBillHistory(customerId, null, 20);
+            }
+        });
+
+        phase("confirm-bills", billCount, () -> {
+            // Only this run's bills; drafts already in the database are left alone
+            BillStatusTransitionRequest request = new BillStatusTransitionRequest();
+            request.setTargetStatus(Bill.BillStatus.CONFIRMED);
+            request.setBillIds(billIds);
+            billService.transitionBills(request);
+        });
+
+        phase("recalculate-bills", billCount, billRecalculationService::recalculateAllBills);
+
+        System.exit(SpringApplication.exit(context));
+    }
+
+    private Bill newBill(Customer customer, List<Item> items) {
+        Bill bill = new Bill();
+        bill.setCustomer(customer);
+        List<BillItem> billItems = new ArrayList<>();
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < ITEMS_PER_BILL; i++) {
+            Item item = items.get(random.nextInt(items.size()));
+            BillItem billItem = new BillItem();
+            billItem.setBill(bill);
+            billItem.setItem(item);
+            billItem.setQuantity(1 + random.nextInt(5));
+            billItem.setUnitPrice(item.getPrice());
+            billItem.setTotalPrice(item.getPrice().multiply(BigDecimal.valueOf(billItem.getQuantity())));
+            billItems.add(billItem);
+            total = total.add(billItem.getTotalPrice());
+        }
+        bill.setBillItems(billItems);
+        bill.setTotalAmount(total);
+        bill.setFinalAmount(total);
+        return bill;
+    }
+
+    // Output: BENCH <backend> <phase> <operations> <millis> <operations per second>
+    private void phase(String name, int operations, Runnable work) {
+        long start = System.nanoTime();
+        work.run();
+        long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        System.out.printf("BENCH %s %s %d %d %.1f%n", backend, name, operations, millis, operations * 1000.0 / millis);
+    }
+}
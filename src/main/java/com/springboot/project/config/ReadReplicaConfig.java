@@ -0,0 +1,69 @@
+package com.springboot.project.config;
+
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.core.env.Environment;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Bean;
+import com.zaxxer.hikari.HikariDataSource;
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+// Active when app.datasource.replica-urls is set; otherwise Spring Boot's single datasource is used
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica-urls")
+public class ReadReplicaConfig {
+
+    @Bean
+    public ReadWriteRoutingDataSource readWriteRoutingDataSource(
+            DataSourceProperties properties,
+            Environment environment,
+            @Value("${app.datasource.replica-urls}") List<String> replicaUrls,
+            @Value("${app.datasource.replica-max-lag-ms:5000}") long maxLagMillis,
+            @Value("${app.datasource.sticky-window-ms:5000}") long stickyWindowMillis) {
+        // spring.datasource.hikari.* (pool size, driver properties) applies to every pool
+        Binder binder = Binder.get(environment);
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            HikariDataSource replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(properties.determineDriverClassName())
+                    .url(replicaUrls.get(i).trim())
+                    .username(properties.determineUsername())
+                    .password(properties.determinePassword())
+                    .build();
+            binder.bind("spring.datasource.hikari", Bindable.ofInstance(replica));
+            replica.setPoolName("replica-" + i);
+            replicas.add(replica);
+        }
+        return new ReadWriteRoutingDataSource(primary, replicas, maxLagMillis, stickyWindowMillis);
+    }
+
+    // The physical connection is only chosen at the first statement, after Spring has
+    // marked the transaction read-only
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource readWriteRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(readWriteRoutingDataSource);
+    }
+
+    // With open-in-view the session would otherwise hold its first connection (and
+    // therefore its first routing decision) for the whole request
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionsAfterTransaction() {
+        return properties -> properties.put("hibernate.connection.handling_mode",
+                "DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION");
+    }
+}
@@ -0,0 +1,133 @@
+package com.springboot.project.config;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.Authentication;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.sql.DataSource;
+import java.util.*;
+
+// Sends read-only transactions to a replica and everything else to the primary.
+// Replicas lagging more than maxLagMillis are skipped, and a user's reads stay on the
+// primary for stickyWindowMillis after one of their own write transactions commits.
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private final Map<String, Long> lastWriteByUser = new ConcurrentHashMap<>();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final long maxLagMillis;
+    private final long stickyWindowMillis;
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicaDataSources,
+                                      long maxLagMillis, long stickyWindowMillis) {
+        this.maxLagMillis = maxLagMillis;
+        this.stickyWindowMillis = stickyWindowMillis;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicaDataSources.size(); i++) {
+            Replica replica = new Replica("replica-" + i, replicaDataSources.get(i));
+            replicas.add(replica);
+            targets.put(replica.getKey(), replica.getDataSource());
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            trackWrite();
+            return PRIMARY;
+        }
+        if (isSticky(currentUser())) {
+            return PRIMARY;
+        }
+        for (int attempt = 0; attempt < replicas.size(); attempt++) {
+            Replica replica = replicas.get(Math.floorMod(nextReplica.getAndIncrement(), replicas.size()));
+            if (replica.isHealthy() && replica.getLagMillis() <= maxLagMillis) {
+                return replica.getKey();
+            }
+        }
+        return PRIMARY;
+    }
+
+    public DataSource getPrimary() {
+        return (DataSource) getResolvedDefaultDataSource();
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    private void trackWrite() {
+        String user = currentUser();
+        if (user != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    lastWriteByUser.put(user, System.currentTimeMillis());
+                }
+            });
+        }
+    }
+
+    private boolean isSticky(String user) {
+        if (user == null) {
+            return false;
+        }
+        Long lastWrite = lastWriteByUser.get(user);
+        if (lastWrite == null) {
+            return false;
+        }
+        if (System.currentTimeMillis() - lastWrite > stickyWindowMillis) {
+            lastWriteByUser.remove(user, lastWrite);
+            return false;
+        }
+        return true;
+    }
+
+    private String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : null;
+    }
+
+    public static class Replica {
+        private final String key;
+        private final DataSource dataSource;
+        private volatile long lagMillis = Long.MAX_VALUE; // unknown until the first heartbeat is read
+        private volatile boolean healthy;
+
+        Replica(String key, DataSource dataSource) {
+            this.key = key;
+            this.dataSource = dataSource;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public DataSource getDataSource() {
+            return dataSource;
+        }
+
+        public long getLagMillis() {
+            return lagMillis;
+        }
+
+        public boolean isHealthy() {
+            return healthy;
+        }
+
+        public void update(long lagMillis, boolean healthy) {
+            this.lagMillis = lagMillis;
+            this.healthy = healthy;
+        }
+    }
+}
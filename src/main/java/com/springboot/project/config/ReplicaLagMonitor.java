@@ -0,0 +1,52 @@
+package com.springboot.project.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Gauge;
+import lombok.extern.slf4j.Slf4j;
+
+// Writes a heartbeat timestamp to the primary and reads it back from every replica;
+// the difference is the replica's lag, which the routing datasource uses to skip it
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.datasource.replica-urls")
+public class ReplicaLagMonitor {
+
+    private final ReadWriteRoutingDataSource routingDataSource;
+    private final JdbcTemplate primary;
+
+    public ReplicaLagMonitor(ReadWriteRoutingDataSource routingDataSource, MeterRegistry meterRegistry) {
+        this.routingDataSource = routingDataSource;
+        this.primary = new JdbcTemplate(routingDataSource.getPrimary());
+        for (ReadWriteRoutingDataSource.Replica replica : routingDataSource.getReplicas()) {
+            Gauge.builder("datasource.replica.lag", replica, r -> r.getLagMillis() / 1000.0)
+                    .tag("replica", replica.getKey())
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.heartbeat-interval-ms:1000}")
+    public void heartbeat() {
+        long now = System.currentTimeMillis();
+        try {
+            primary.update("UPDATE replica_heartbeat SET beat_at = ? WHERE id = 1", now);
+        } catch (Exception e) {
+            log.warn("Could not write replica heartbeat: {}", e.getMessage());
+        }
+
+        for (ReadWriteRoutingDataSource.Replica replica : routingDataSource.getReplicas()) {
+            try {
+                Long beatAt = new JdbcTemplate(replica.getDataSource())
+                        .queryForObject("SELECT beat_at FROM replica_heartbeat WHERE id = 1", Long.class);
+                replica.update(beatAt != null && beatAt > 0 ? now - beatAt : Long.MAX_VALUE, true);
+            } catch (Exception e) {
+                replica.update(Long.MAX_VALUE, false);
+                log.debug("Replica {} unavailable: {}", replica.getKey(), e.getMessage());
+            }
+        }
+    }
+}
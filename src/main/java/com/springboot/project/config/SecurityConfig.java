@@ -27,7 +27,9 @@ public class SecurityConfig {
         http
             .userDetailsService(userDetailsService)
             .authorizeHttpRequests(authz -> authz
-                .requestMatchers("/", "/login", "/signup", "/css/**", "/js/**", "/images/**", "/h2-console/**").permitAll()
+                .requestMatchers("/", "/login", "/signup", "/css/**", "/js/**", "/images/**", "/h2-console/**", "/actuator/health/**").permitAll()
+                // Metrics and SQL statistics (statement shapes, timings) are for operators only
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 .requestMatchers("/customers/**", "/items/**").authenticated()
                 .anyRequest().authenticated()
             )
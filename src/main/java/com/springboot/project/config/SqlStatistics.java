@@ -0,0 +1,193 @@
+package com.springboot.project.config;
+
+import com.springboot.project.dto.SqlQueryStats;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.slf4j.LoggerFactory;
+import java.util.Comparator;
+import org.slf4j.Logger;
+import java.util.List;
+import java.util.Map;
+
+// Per query shape (the SQL with literals and IN lists folded) counts, time, rows and binds of
+// every statement run through TracingDataSource. Statements over the threshold go to the
+// "sql.slow" logger from a background thread, tagged with the application method that ran
+// them; when the log falls behind, entries are dropped and counted instead of slowing queries.
+public class SqlStatistics {
+
+    private static final Logger slowLog = LoggerFactory.getLogger("sql.slow");
+
+    private static final String APP_PACKAGE = "com.springboot.project.";
+    private static final String OTHER_SHAPES = "(other)";
+    private static final int MAX_LOGGED_SQL = 2000;
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+
+    private static final StackWalker stackWalker = StackWalker.getInstance();
+
+    private final long slowThresholdNanos;
+    private final int maxShapes;
+    private final Map<String, String> shapeOfSql = new ConcurrentHashMap<>();
+    private final Map<String, Shape> shapes = new ConcurrentHashMap<>();
+    private final LongAdder droppedSlowLogEntries = new LongAdder();
+    private final ThreadPoolExecutor slowLogWriter;
+
+    public SqlStatistics(long slowThresholdMillis, int maxShapes, int slowLogQueueSize) {
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+        this.maxShapes = Math.max(1, maxShapes);
+        this.slowLogWriter = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, slowLogQueueSize)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "sql-slow-log");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, executor) -> droppedSlowLogEntries.increment());
+    }
+
+    public void record(String sql, long nanos, long rows, int binds, int batches) {
+        if (sql == null) {
+            return;
+        }
+        String key = shapeOf(sql);
+        String origin = null;
+        Shape shape = shapes.get(key);
+        if (shape == null) {
+            origin = origin();
+            shape = shapeFor(key, origin);
+        }
+
+        shape.count.increment();
+        shape.nanos.add(nanos);
+        shape.rows.add(rows);
+        shape.binds.add(binds);
+        // The stack is only walked for the executions worth attributing: a new slowest one or a slow one
+        long max = shape.maxNanos.get();
+        while (nanos > max) {
+            if (shape.maxNanos.compareAndSet(max, nanos)) {
+                origin = origin != null ? origin : origin();
+                shape.slowestOrigin = origin;
+                break;
+            }
+            max = shape.maxNanos.get();
+        }
+        if (nanos >= slowThresholdNanos) {
+            shape.slow.increment();
+            logSlow(sql, nanos, rows, binds, batches, origin != null ? origin : origin());
+        }
+    }
+
+    public List<SqlQueryStats> snapshot() {
+        return shapes.entrySet().stream()
+                .map(entry -> entry.getValue().toStats(entry.getKey()))
+                .sorted(Comparator.comparingDouble(SqlQueryStats::getTotalMillis).reversed())
+                .toList();
+    }
+
+    public void reset() {
+        shapes.clear();
+        droppedSlowLogEntries.reset();
+    }
+
+    public long getSlowThresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(slowThresholdNanos);
+    }
+
+    public long getDroppedSlowLogEntries() {
+        return droppedSlowLogEntries.sum();
+    }
+
+    public void close() {
+        slowLogWriter.shutdown();
+    }
+
+    // Hibernate's SQL is already parameterized; this folds what hand-written SQL inlines
+    static String normalize(String sql) {
+        String shape = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        shape = STRING_LITERAL.matcher(shape).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        return IN_LIST.matcher(shape).replaceAll("in (?...)");
+    }
+
+    private String shapeOf(String sql) {
+        String shape = shapeOfSql.get(sql);
+        if (shape == null) {
+            shape = normalize(sql);
+            // Statements with inlined values would otherwise grow the cache without bound
+            if (shapeOfSql.size() < maxShapes * 4) {
+                shapeOfSql.put(sql, shape);
+            }
+        }
+        return shape;
+    }
+
+    private Shape shapeFor(String sql, String origin) {
+        if (shapes.size() >= maxShapes && !shapes.containsKey(sql)) {
+            return shapes.computeIfAbsent(OTHER_SHAPES, key -> new Shape(origin));
+        }
+        return shapes.computeIfAbsent(sql, key -> new Shape(origin));
+    }
+
+    private void logSlow(String sql, long nanos, long rows, int binds, int batches, String origin) {
+        String logged = sql.length() > MAX_LOGGED_SQL ? sql.substring(0, MAX_LOGGED_SQL) + "..." : sql;
+        slowLogWriter.execute(() -> slowLog.warn("{} ms, {} rows, {} binds{} [{}] {}",
+                String.format("%.1f", nanos / 1_000_000.0), rows, binds,
+                batches > 0 ? ", " + batches + " batched" : "", origin, logged));
+    }
+
+    // The innermost application method on the stack, e.g. ItemService.adjustItems; Spring
+    // proxies and the tracing classes themselves are skipped
+    private static String origin() {
+        return stackWalker.walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith(APP_PACKAGE)
+                        && !frame.getClassName().contains("$$")
+                        && !frame.getClassName().startsWith(SqlStatistics.class.getName())
+                        && !frame.getClassName().startsWith(TracingDataSource.class.getName()))
+                .findFirst()
+                .map(SqlStatistics::describe)
+                .orElse("-"));
+    }
+
+    private static String describe(StackWalker.StackFrame frame) {
+        String className = frame.getClassName();
+        String method = frame.getMethodName();
+        // lambda$adjustItems$3 runs on behalf of adjustItems
+        if (method.startsWith("lambda$")) {
+            int end = method.indexOf('$', 7);
+            method = end > 7 ? method.substring(7, end) : method;
+        }
+        return className.substring(className.lastIndexOf('.') + 1) + "." + method;
+    }
+
+    private static final class Shape {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder binds = new LongAdder();
+        private final LongAdder slow = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final String origin;
+        private volatile String slowestOrigin;
+
+        private Shape(String origin) {
+            this.origin = origin;
+        }
+
+        private SqlQueryStats toStats(String sql) {
+            long executions = count.sum();
+            double totalMillis = nanos.sum() / 1_000_000.0;
+            return new SqlQueryStats(sql, executions, totalMillis,
+                    executions > 0 ? totalMillis / executions : 0,
+                    maxNanos.get() / 1_000_000.0, rows.sum(), binds.sum(), slow.sum(),
+                    origin, slowestOrigin);
+        }
+    }
+}
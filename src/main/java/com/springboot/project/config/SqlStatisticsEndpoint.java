@@ -0,0 +1,36 @@
+package com.springboot.project.config;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.lang.Nullable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// GET /actuator/sqlstats lists query shapes by total time (?limit=20 for the top ones),
+// DELETE /actuator/sqlstats starts a fresh measurement
+@Endpoint(id = "sqlstats")
+public class SqlStatisticsEndpoint {
+
+    private final SqlStatistics sqlStatistics;
+
+    public SqlStatisticsEndpoint(SqlStatistics sqlStatistics) {
+        this.sqlStatistics = sqlStatistics;
+    }
+
+    @ReadOperation
+    public Map<String, Object> statistics(@Nullable Integer limit) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("slowThresholdMs", sqlStatistics.getSlowThresholdMillis());
+        result.put("droppedSlowLogEntries", sqlStatistics.getDroppedSlowLogEntries());
+        result.put("queries", sqlStatistics.snapshot().stream()
+                .limit(limit != null && limit > 0 ? limit : Long.MAX_VALUE)
+                .toList());
+        return result;
+    }
+
+    @DeleteOperation
+    public void reset() {
+        sqlStatistics.reset();
+    }
+}
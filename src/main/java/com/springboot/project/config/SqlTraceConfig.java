@@ -0,0 +1,66 @@
+package com.springboot.project.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.aot.hint.RuntimeHints;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.sql.ResultSet;
+import javax.sql.DataSource;
+
+// Replaces spring.jpa.show-sql: the application's datasource is wrapped in TracingDataSource,
+// which aggregates statistics per query shape (actuator endpoint sqlstats) and logs only the
+// statements slower than app.sql-trace.slow-threshold-ms
+@Configuration
+@ConditionalOnProperty(name = "app.sql-trace.enabled", havingValue = "true", matchIfMissing = true)
+@ImportRuntimeHints(SqlTraceConfig.ProxyHints.class)
+public class SqlTraceConfig {
+
+    @Bean
+    public SqlStatistics sqlStatistics(@Value("${app.sql-trace.slow-threshold-ms:200}") long slowThresholdMillis,
+                                       @Value("${app.sql-trace.max-shapes:500}") int maxShapes,
+                                       @Value("${app.sql-trace.slow-log-queue:1000}") int slowLogQueueSize) {
+        return new SqlStatistics(slowThresholdMillis, maxShapes, slowLogQueueSize);
+    }
+
+    @Bean
+    public SqlStatisticsEndpoint sqlStatisticsEndpoint(SqlStatistics sqlStatistics) {
+        return new SqlStatisticsEndpoint(sqlStatistics);
+    }
+
+    // Only the "dataSource" bean is wrapped: with read replicas that is the lazy proxy in front
+    // of the routing datasource, so the pools and ReplicaLagMonitor's heartbeats stay untraced
+    @Bean
+    public static BeanPostProcessor tracingDataSourcePostProcessor(ObjectProvider<SqlStatistics> sqlStatistics) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if ("dataSource".equals(beanName) && bean instanceof DataSource dataSource
+                        && !(bean instanceof TracingDataSource)) {
+                    return new TracingDataSource(dataSource, sqlStatistics.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    // The JDBC proxies are created at runtime, which a native image has to know about
+    static class ProxyHints implements RuntimeHintsRegistrar {
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            hints.proxies().registerJdkProxy(Connection.class);
+            hints.proxies().registerJdkProxy(Statement.class);
+            hints.proxies().registerJdkProxy(PreparedStatement.class);
+            hints.proxies().registerJdkProxy(CallableStatement.class);
+            hints.proxies().registerJdkProxy(ResultSet.class);
+        }
+    }
+}
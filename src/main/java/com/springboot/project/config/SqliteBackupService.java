@@ -0,0 +1,193 @@
+package com.springboot.project.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import java.nio.file.StandardCopyOption;
+import java.security.NoSuchAlgorithmException;
+import java.security.DigestOutputStream;
+import java.time.format.DateTimeFormatter;
+import java.util.zip.GZIPOutputStream;
+import java.security.MessageDigest;
+import java.sql.DriverManager;
+import java.io.OutputStream;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import org.sqlite.SQLiteConnection;
+import org.sqlite.SQLiteConfig;
+import java.util.stream.Stream;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.HexFormat;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+
+// Scheduled online backups of the SQLite database file, kept as rotating gzip snapshots
+// with a sha256sum-style checksum file next to each. The copy uses SQLite's backup API in
+// steps of a few hundred pages with a pause in between, from a connection that holds one
+// read transaction: in WAL mode that snapshot never blocks writers, and because it does not
+// move, writes during the backup do not make the copy start over.
+@Slf4j
+@Component
+@Profile("sqlite")
+@ConditionalOnProperty(name = "app.backup.enabled", havingValue = "true")
+public class SqliteBackupService {
+
+    private static final String SQLITE_PREFIX = "jdbc:sqlite:";
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final String SNAPSHOT_SUFFIX = ".db.gz";
+    private static final String CHECKSUM_SUFFIX = ".sha256";
+
+    // Waits on a locked source (sqlite-jdbc's busy handling inside the backup loop)
+    private static final int BUSY_SLEEP_MILLIS = 100;
+    private static final int BUSY_RETRIES = 50;
+
+    private final String databasePath;
+    private final String baseName;
+    private final Path directory;
+    private final int keep;
+    private final int pagesPerStep;
+    private final long stepPauseMillis;
+
+    public SqliteBackupService(@Value("${spring.datasource.url}") String databaseUrl,
+                               @Value("${app.backup.directory:${user.dir}/data/backups}") Path directory,
+                               @Value("${app.backup.keep:24}") int keep,
+                               @Value("${app.backup.pages-per-step:256}") int pagesPerStep,
+                               @Value("${app.backup.step-pause-ms:10}") long stepPauseMillis) {
+        if (!databaseUrl.startsWith(SQLITE_PREFIX)) {
+            throw new IllegalStateException("Backups only support SQLite, not " + databaseUrl);
+        }
+        String path = databaseUrl.substring(SQLITE_PREFIX.length());
+        this.databasePath = path.contains("?") ? path.substring(0, path.indexOf('?')) : path;
+        String fileName = Path.of(databasePath).getFileName().toString();
+        this.baseName = fileName.endsWith(".db") ? fileName.substring(0, fileName.length() - 3) : fileName;
+        this.directory = directory;
+        this.keep = Math.max(1, keep);
+        this.pagesPerStep = Math.max(1, pagesPerStep);
+        this.stepPauseMillis = stepPauseMillis;
+    }
+
+    @Scheduled(cron = "${app.backup.cron:0 15 * * * *}")
+    public void backupOnSchedule() {
+        try {
+            backup();
+        } catch (Exception e) {
+            log.warn("Database backup failed: {}", e.getMessage());
+        }
+    }
+
+    // Returns the new snapshot, e.g. data/backups/mydatabase-20260101-021500.db.gz
+    public synchronized Path backup() throws IOException, SQLException {
+        Files.createDirectories(directory);
+        String name = baseName + "-" + LocalDateTime.now().format(STAMP);
+        Path copy = directory.resolve(name + ".db.tmp");
+        Path partial = directory.resolve(name + SNAPSHOT_SUFFIX + ".tmp");
+        Path snapshot = directory.resolve(name + SNAPSHOT_SUFFIX);
+        long start = System.currentTimeMillis();
+        try {
+            copyOnline(copy);
+            checkIntegrity(copy);
+            String checksum = compress(copy, partial);
+            // Only complete snapshots ever carry the final name
+            Files.move(partial, snapshot, StandardCopyOption.ATOMIC_MOVE);
+            Files.writeString(directory.resolve(name + SNAPSHOT_SUFFIX + CHECKSUM_SUFFIX),
+                    checksum + "  " + snapshot.getFileName() + "\n");
+        } finally {
+            Files.deleteIfExists(copy);
+            Files.deleteIfExists(partial);
+        }
+        int removed = rotate();
+        log.info("Backed up {} to {} ({} bytes) in {} ms{}", databasePath, snapshot, Files.size(snapshot),
+                System.currentTimeMillis() - start, removed > 0 ? ", removed " + removed + " old snapshots" : "");
+        return snapshot;
+    }
+
+    private void copyOnline(Path copy) throws SQLException {
+        // Not a pooled connection: those begin IMMEDIATE transactions, which take the write lock
+        SQLiteConfig config = new SQLiteConfig();
+        config.setTransactionMode(SQLiteConfig.TransactionMode.DEFERRED);
+        config.setBusyTimeout(5000);
+        try (Connection connection = config.createConnection(SQLITE_PREFIX + databasePath)) {
+            connection.setAutoCommit(false);
+            // A first read opens the transaction that pins the snapshot being copied
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery("SELECT count(*) FROM sqlite_master")) {
+                resultSet.next();
+            }
+            int result = ((SQLiteConnection) connection).getDatabase().backup("main", copy.toString(),
+                    (remaining, pageCount) -> pause(), BUSY_SLEEP_MILLIS, BUSY_RETRIES, pagesPerStep);
+            if (result != 0) {
+                throw new SQLException("SQLite backup failed with result code " + result);
+            }
+            connection.rollback();
+        }
+    }
+
+    // Leaves the disk to the application's own queries between steps
+    private void pause() {
+        if (stepPauseMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(stepPauseMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void checkIntegrity(Path copy) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(SQLITE_PREFIX + copy);
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("PRAGMA quick_check")) {
+            String result = resultSet.next() ? resultSet.getString(1) : null;
+            if (!"ok".equals(result)) {
+                throw new SQLException("Backup copy failed the integrity check: " + result);
+            }
+        }
+    }
+
+    // Gzips the copy and returns the SHA-256 of the compressed file, as sha256sum prints it
+    private static String compress(Path source, Path target) throws IOException {
+        MessageDigest digest = sha256();
+        try (OutputStream out = new GZIPOutputStream(
+                new DigestOutputStream(Files.newOutputStream(target), digest), 64 * 1024)) {
+            Files.copy(source, out);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    // Keeps the newest snapshots; the timestamp in the name sorts them
+    private int rotate() throws IOException {
+        List<Path> snapshots;
+        try (Stream<Path> files = Files.list(directory)) {
+            snapshots = files
+                    .filter(file -> {
+                        String fileName = file.getFileName().toString();
+                        return fileName.startsWith(baseName + "-") && fileName.endsWith(SNAPSHOT_SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+        int removed = 0;
+        for (Path old : snapshots.subList(0, Math.max(0, snapshots.size() - keep))) {
+            Files.deleteIfExists(old);
+            Files.deleteIfExists(old.resolveSibling(old.getFileName() + CHECKSUM_SUFFIX));
+            removed++;
+        }
+        return removed;
+    }
+}
@@ -0,0 +1,45 @@
+package com.springboot.project.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import lombok.extern.slf4j.Slf4j;
+import java.sql.DriverManager;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+
+// Local stand-in for replication: periodically copies the primary SQLite file into each
+// replica file with SQLite's online backup API (sqlite-jdbc's "restore from" statement)
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.datasource.replica-sync.enabled", havingValue = "true")
+public class SqliteReplicaSynchronizer {
+
+    private static final String SQLITE_PREFIX = "jdbc:sqlite:";
+
+    private final String primaryPath;
+    private final List<String> replicaUrls;
+
+    public SqliteReplicaSynchronizer(@Value("${spring.datasource.url}") String primaryUrl,
+                                     @Value("${app.datasource.replica-urls}") List<String> replicaUrls) {
+        if (!primaryUrl.startsWith(SQLITE_PREFIX)) {
+            throw new IllegalStateException("Replica sync only supports SQLite, not " + primaryUrl);
+        }
+        this.primaryPath = primaryUrl.substring(SQLITE_PREFIX.length());
+        this.replicaUrls = replicaUrls;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica-sync.interval-ms:2000}")
+    public void sync() {
+        for (String replicaUrl : replicaUrls) {
+            try (Connection connection = DriverManager.getConnection(replicaUrl.trim());
+                 Statement statement = connection.createStatement()) {
+                statement.executeUpdate("restore from '" + primaryPath.replace("'", "''") + "'");
+            } catch (Exception e) {
+                log.warn("Could not sync replica {}: {}", replicaUrl, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.springboot.project.config;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import com.springboot.project.controller.CustomerController;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import com.springboot.project.controller.BillController;
+import com.springboot.project.controller.ItemController;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.csrf.DefaultCsrfToken;
+import org.springframework.security.web.csrf.CsrfToken;
+import org.springframework.boot.ApplicationArguments;
+import com.springboot.project.service.BillService;
+import org.springframework.web.servlet.ViewResolver;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.ui.ExtendedModelMap;
+import org.springframework.stereotype.Component;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import com.springboot.project.dto.BillListRow;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.ServletContext;
+import org.springframework.web.servlet.View;
+import java.util.concurrent.TimeUnit;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.io.PrintWriter;
+import java.util.function.Function;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.List;
+import java.util.Map;
+import java.io.Writer;
+import lombok.extern.slf4j.Slf4j;
+
+// Runs the hot paths a few hundred times before the node reports ready, so the first real
+// requests after a deploy do not pay for Hibernate query plans, Thymeleaf template parsing
+// and interpreted code. Application runners finish before the readiness state switches to
+// ACCEPTING_TRAFFIC, so /actuator/health/readiness stays down until this is done.
+// Pages are built by the controllers and rendered by the Thymeleaf view into a discarded
+// writer, inside a read-only transaction; bill totalling runs in a transaction that is
+// always rolled back.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.warmup.enabled", havingValue = "true")
+public class StartupWarmup implements ApplicationRunner {
+
+    private static final Authentication WARMUP_USER =
+            new UsernamePasswordAuthenticationToken("warmup", null, List.of());
+    private static final CsrfToken WARMUP_CSRF_TOKEN = new DefaultCsrfToken("X-CSRF-TOKEN", "_csrf", "warmup");
+
+    private final BillController billController;
+    private final CustomerController customerController;
+    private final ItemController itemController;
+    private final BillService billService;
+    private final ViewResolver viewResolver;
+    private final ServletContext servletContext;
+    private final TransactionTemplate readOnly;
+    private final TransactionTemplate rolledBack;
+    private final int iterations;
+    private final long maxDurationMillis;
+    private volatile long durationMillis;
+
+    public StartupWarmup(BillController billController,
+                         CustomerController customerController,
+                         ItemController itemController,
+                         BillService billService,
+                         @Qualifier("thymeleafViewResolver") ViewResolver viewResolver,
+                         ServletContext servletContext,
+                         PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry,
+                         @Value("${app.warmup.iterations:200}") int iterations,
+                         @Value("${app.warmup.max-duration-ms:30000}") long maxDurationMillis) {
+        this.billController = billController;
+        this.customerController = customerController;
+        this.itemController = itemController;
+        this.billService = billService;
+        this.viewResolver = viewResolver;
+        this.servletContext = servletContext;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.rolledBack = new TransactionTemplate(transactionManager);
+        this.iterations = Math.max(0, iterations);
+        this.maxDurationMillis = maxDurationMillis;
+        TimeGauge.builder("app.warmup.duration", this, TimeUnit.MILLISECONDS, warmup -> warmup.durationMillis)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxDurationMillis);
+        int rounds = 0;
+        try {
+            while (rounds < iterations && System.nanoTime() < deadline) {
+                readOnly.executeWithoutResult(status -> {
+                    render("/bills", model -> billController.viewBills(0, 10, "createdAt", "desc", null, model, WARMUP_USER));
+                    render("/customers", model -> customerController.customersPage(0, 10, "name", "asc", null, model, WARMUP_USER));
+                    render("/items", model -> itemController.itemsPage(0, 10, "name", "asc", null, model, WARMUP_USER));
+                });
+                rolledBack.executeWithoutResult(status -> {
+                    status.setRollbackOnly();
+                    List<BillListRow> bills = billService.findAllBills(PageRequest.of(0, 1)).getContent();
+                    if (!bills.isEmpty()) {
+                        billService.calculateBillAmounts(bills.get(0).getId());
+                    }
+                });
+                rounds++;
+            }
+        } catch (Exception e) {
+            // A failed warm-up only costs the first requests some latency; it must not stop the node
+            log.warn("Warm-up stopped after {} rounds: {}", rounds, e.getMessage());
+        }
+        durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        log.info("Warm-up finished in {} ms ({} rounds)", durationMillis, rounds);
+    }
+
+    // The same steps as a GET of the page, minus the servlet container and security filters
+    private void render(String path, Function<ExtendedModelMap, String> controller) {
+        ExtendedModelMap model = new ExtendedModelMap();
+        String viewName = controller.apply(model);
+        try {
+            View view = viewResolver.resolveViewName(viewName, Locale.getDefault());
+            if (view != null) {
+                view.render(model, request(path), response());
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not render " + viewName + " for " + path, e);
+        }
+    }
+
+    // Minimal GET request for the view; anything not answered here reads as absent
+    private HttpServletRequest request(String path) {
+        Map<String, Object> attributes = new HashMap<>();
+        // The page forms carry the token that Spring Security's filter would have exposed
+        attributes.put("_csrf", WARMUP_CSRF_TOKEN);
+        attributes.put(CsrfToken.class.getName(), WARMUP_CSRF_TOKEN);
+        return proxy(HttpServletRequest.class, (method, args) -> switch (method) {
+            case "getMethod" -> "GET";
+            case "getRequestURI", "getServletPath" -> path;
+            case "getContextPath" -> "";
+            case "getScheme" -> "http";
+            case "getServerName" -> "localhost";
+            case "getCharacterEncoding" -> "UTF-8";
+            case "getLocale" -> Locale.getDefault();
+            case "getLocales" -> Collections.enumeration(List.of(Locale.getDefault()));
+            case "getServletContext" -> servletContext;
+            case "getDispatcherType" -> DispatcherType.REQUEST;
+            case "toString" -> "GET " + path;
+            case "getAttribute" -> attributes.get((String) args[0]);
+            case "setAttribute" -> attributes.put((String) args[0], args[1]);
+            case "removeAttribute" -> attributes.remove((String) args[0]);
+            case "getAttributeNames" -> Collections.enumeration(List.copyOf(attributes.keySet()));
+            case "getParameterMap" -> Map.of();
+            case "getParameterNames", "getHeaderNames", "getHeaders" -> Collections.emptyEnumeration();
+            default -> null;
+        });
+    }
+
+    private HttpServletResponse response() {
+        PrintWriter writer = new PrintWriter(Writer.nullWriter());
+        return proxy(HttpServletResponse.class, (method, args) -> switch (method) {
+            case "getWriter" -> writer;
+            case "getCharacterEncoding" -> "UTF-8";
+            case "getLocale" -> Locale.getDefault();
+            case "encodeURL", "encodeRedirectURL" -> args[0];
+            default -> null;
+        });
+    }
+
+    private interface Answer {
+        Object answer(String method, Object[] args);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Answer answer) {
+        return (T) Proxy.newProxyInstance(StartupWarmup.class.getClassLoader(), new Class<?>[] {type},
+                (proxy, method, args) -> {
+                    Object result = answer.answer(method.getName(), args);
+                    if (result == null && method.getReturnType() == boolean.class) {
+                        return false;
+                    }
+                    if (result == null && method.getReturnType().isPrimitive() && method.getReturnType() != void.class) {
+                        return method.getReturnType() == long.class ? 0L : 0;
+                    }
+                    return result;
+                });
+    }
+}
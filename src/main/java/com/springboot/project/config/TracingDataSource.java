@@ -0,0 +1,256 @@
+package com.springboot.project.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.InvocationHandler;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.sql.ResultSet;
+import javax.sql.DataSource;
+
+// Hands out connections whose statements report to SqlStatistics: time spent executing and
+// fetching, bound parameters, batch size and rows read or written. A query is recorded when
+// its result set is exhausted or closed, so the time includes fetching the rows.
+public class TracingDataSource extends DelegatingDataSource {
+
+    private final SqlStatistics statistics;
+
+    public TracingDataSource(DataSource target, SqlStatistics statistics) {
+        super(target);
+        this.statistics = statistics;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return trace(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return trace(super.getConnection(username, password));
+    }
+
+    private Connection trace(Connection connection) {
+        return proxy(Connection.class, new ConnectionHandler(connection));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(TracingDataSource.class.getClassLoader(), new Class<?>[] {type}, handler);
+    }
+
+    private static Object call(Object proxy, Object target, Method method, Object[] args) throws Throwable {
+        // Proxies compare by identity, so Hibernate can keep statements and result sets in hash maps
+        if (method.getName().equals("equals") && method.getParameterCount() == 1) {
+            return proxy == args[0];
+        }
+        if (method.getName().equals("hashCode") && method.getParameterCount() == 0) {
+            return System.identityHashCode(proxy);
+        }
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        private ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = call(proxy, target, method, args);
+            switch (method.getName()) {
+                case "createStatement":
+                    return TracingDataSource.proxy(Statement.class,
+                            new StatementHandler((Statement) result, (Connection) proxy, null));
+                case "prepareStatement":
+                    return TracingDataSource.proxy(PreparedStatement.class,
+                            new StatementHandler((Statement) result, (Connection) proxy, (String) args[0]));
+                case "prepareCall":
+                    return TracingDataSource.proxy(CallableStatement.class,
+                            new StatementHandler((Statement) result, (Connection) proxy, (String) args[0]));
+                default:
+                    return result;
+            }
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final Connection connection;
+        private final String sql;
+        private int binds;
+        private int batches;
+        private Execution pending;
+
+        private StatementHandler(Statement target, Connection connection, String sql) {
+            this.target = target;
+            this.connection = connection;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                return execute(proxy, method, args);
+            }
+            switch (name) {
+                case "getResultSet":
+                    return resultSet(proxy, (ResultSet) call(proxy, target, method, args));
+                case "addBatch":
+                    batches++;
+                    break;
+                case "clearBatch":
+                    batches = 0;
+                    binds = 0;
+                    break;
+                case "close":
+                    finishPending();
+                    break;
+                case "getConnection":
+                    return connection;
+                default:
+                    // setInt, setString, ... on a prepared statement, not setFetchSize and friends
+                    if (name.startsWith("set") && method.getDeclaringClass() != Statement.class) {
+                        binds++;
+                    }
+            }
+            return call(proxy, target, method, args);
+        }
+
+        private Object execute(Object proxy, Method method, Object[] args) throws Throwable {
+            finishPending();
+            String statementSql = args != null && args.length > 0 && args[0] instanceof String s ? s : sql;
+            int executionBinds = binds;
+            int executionBatches = batches;
+            binds = 0;
+            batches = 0;
+
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = call(proxy, target, method, args);
+            } catch (Throwable e) {
+                statistics.record(statementSql, System.nanoTime() - start, 0, executionBinds, executionBatches);
+                throw e;
+            }
+            long elapsed = System.nanoTime() - start;
+
+            if (result instanceof ResultSet resultSet) {
+                pending = new Execution(statementSql, elapsed, executionBinds);
+                return resultSet(proxy, resultSet);
+            }
+            if (Boolean.TRUE.equals(result)) {
+                // The caller fetches the rows through getResultSet
+                pending = new Execution(statementSql, elapsed, executionBinds);
+                return result;
+            }
+            statistics.record(statementSql, elapsed, rows(result), executionBinds, executionBatches);
+            return result;
+        }
+
+        private Object resultSet(Object statement, ResultSet resultSet) {
+            if (resultSet == null || pending == null) {
+                return resultSet;
+            }
+            if (pending.resultSet == null) {
+                pending.resultSet = TracingDataSource.proxy(ResultSet.class,
+                        new ResultSetHandler(resultSet, (Statement) statement, pending));
+            }
+            return pending.resultSet;
+        }
+
+        private void finishPending() {
+            if (pending != null) {
+                pending.finish();
+                pending = null;
+            }
+        }
+    }
+
+    // Update counts of executeUpdate and executeBatch; failed or unknown batch entries count as none
+    private static long rows(Object result) {
+        if (result instanceof Number number) {
+            return Math.max(0, number.longValue());
+        }
+        long rows = 0;
+        if (result instanceof int[] counts) {
+            for (int count : counts) {
+                rows += Math.max(0, count);
+            }
+        } else if (result instanceof long[] counts) {
+            for (long count : counts) {
+                rows += Math.max(0, count);
+            }
+        }
+        return rows;
+    }
+
+    private final class Execution {
+        private final String sql;
+        private final int binds;
+        private long nanos;
+        private long rows;
+        private boolean finished;
+        private ResultSet resultSet;
+
+        private Execution(String sql, long nanos, int binds) {
+            this.sql = sql;
+            this.nanos = nanos;
+            this.binds = binds;
+        }
+
+        private void finish() {
+            if (!finished) {
+                finished = true;
+                statistics.record(sql, nanos, rows, binds, 0);
+            }
+        }
+    }
+
+    private static final class ResultSetHandler implements InvocationHandler {
+        private final ResultSet target;
+        private final Statement statement;
+        private final Execution execution;
+
+        private ResultSetHandler(ResultSet target, Statement statement, Execution execution) {
+            this.target = target;
+            this.statement = statement;
+            this.execution = execution;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "next":
+                    long start = System.nanoTime();
+                    Object result = call(proxy, target, method, args);
+                    execution.nanos += System.nanoTime() - start;
+                    if (Boolean.TRUE.equals(result)) {
+                        execution.rows++;
+                    } else {
+                        execution.finish();
+                    }
+                    return result;
+                case "close":
+                    execution.finish();
+                    return call(proxy, target, method, args);
+                case "getStatement":
+                    return statement;
+                default:
+                    return call(proxy, target, method, args);
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.springboot.project.controller;
+
+import com.springboot.project.service.SalesAnalyticsEngine;
+import org.springframework.format.annotation.DateTimeFormat;
+import com.springboot.project.dto.SalesAggregate;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.HttpStatus;
+import com.springboot.project.entity.Bill;
+import lombok.RequiredArgsConstructor;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+// Sales reports answered from SalesAnalyticsEngine. Dates are inclusive and optional;
+// only PAID bills count unless other statuses are given.
+@Controller
+@RequestMapping("/analytics")
+@RequiredArgsConstructor
+public class AnalyticsController {
+
+    private static final int MAX_LIMIT = 1000;
+
+    private final SalesAnalyticsEngine salesAnalyticsEngine;
+
+    @GetMapping("/top-items")
+    @ResponseBody
+    public ResponseEntity<List<SalesAggregate>> topItems(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) List<Bill.BillStatus> status,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "revenue") String by) {
+        boolean byQuantity = "quantity".equalsIgnoreCase(by);
+        return report(() -> salesAnalyticsEngine.topItems(from, to, statuses(status), clamp(limit), byQuantity));
+    }
+
+    @GetMapping("/revenue/customers")
+    @ResponseBody
+    public ResponseEntity<List<SalesAggregate>> revenueByCustomer(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) List<Bill.BillStatus> status,
+            @RequestParam(defaultValue = "10") int limit) {
+        return report(() -> salesAnalyticsEngine.revenueByCustomer(from, to, statuses(status), clamp(limit)));
+    }
+
+    @GetMapping("/revenue/daily")
+    @ResponseBody
+    public ResponseEntity<List<SalesAggregate>> revenueByDay(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) List<Bill.BillStatus> status) {
+        return report(() -> salesAnalyticsEngine.revenueByDay(from, to, statuses(status)));
+    }
+
+    @GetMapping("/revenue/hourly")
+    @ResponseBody
+    public ResponseEntity<List<SalesAggregate>> revenueByHour(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) List<Bill.BillStatus> status) {
+        return report(() -> salesAnalyticsEngine.revenueByHour(from, to, statuses(status)));
+    }
+
+    // Until the startup load has finished the engine would answer from partial data
+    private ResponseEntity<List<SalesAggregate>> report(Supplier<List<SalesAggregate>> query) {
+        if (!salesAnalyticsEngine.isLoaded()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "5").build();
+        }
+        return ResponseEntity.ok(query.get());
+    }
+
+    private static Set<Bill.BillStatus> statuses(List<Bill.BillStatus> status) {
+        return status == null || status.isEmpty() ? EnumSet.of(Bill.BillStatus.PAID) : EnumSet.copyOf(status);
+    }
+
+    private static int clamp(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+}
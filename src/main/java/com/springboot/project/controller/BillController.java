@@ -2,8 +2,15 @@ package com.springboot.project.controller;
 
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import org.springframework.security.core.Authentication;
+import com.springboot.project.dto.BillStatusTransitionRequest;
+import com.springboot.project.dto.BillListRow;
+import com.springboot.project.dto.BillStatusTransitionResult;
+import com.springboot.project.service.BillRecalculationService;
+import com.springboot.project.service.BillArchiveService;
+import com.springboot.project.service.ReceiptService;
 import com.springboot.project.service.CustomerService;
 import org.springframework.validation.BindingResult;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.PageRequest;
 import com.springboot.project.service.BillService;
 import com.springboot.project.service.ItemService;
@@ -17,21 +24,42 @@ import org.springframework.data.domain.Page;
 import com.springboot.project.entity.Item;
 import com.springboot.project.entity.Bill;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.core.io.FileSystemResource;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.UncheckedIOException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.charset.StandardCharsets;
 import org.springframework.ui.Model;
 import jakarta.validation.Valid;
 import java.time.LocalDateTime;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Controller
 @RequestMapping("/bills")
 @RequiredArgsConstructor
 public class BillController {
 
+    // Sort columns backed by an index (see db/migration V2__performance_indexes.sql)
+    private static final Set<String> SORTABLE_COLUMNS = Set.of("id", "billNumber", "status", "createdAt");
+
     private final BillService billService;
     private final CustomerService customerService;
     private final ItemService itemService;
+    private final BillRecalculationService billRecalculationService;
+    private final BillArchiveService billArchiveService;
+    private final ReceiptService receiptService;
 
     @GetMapping
     public String viewBills(
@@ -44,6 +72,11 @@ public class BillController {
             Authentication authentication) {
 
         try {
+            // Fall back to the default column for anything that would need a full table sort
+            if (!SORTABLE_COLUMNS.contains(sortBy)) {
+                sortBy = "createdAt";
+            }
+
             // Create sort object
             Sort sort = sortDir.equalsIgnoreCase("desc") ? 
                 Sort.by(sortBy).descending() : 
@@ -53,7 +86,7 @@ public class BillController {
             Pageable pageable = PageRequest.of(page, size, sort);
 
             // Get bills with pagination
-            Page<Bill> billPage = billService.findAllBills(pageable);
+            Page<BillListRow> billPage = billService.findAllBills(pageable);
 
             // Get all customers for the dropdown
             List<Customer> customers = customerService.findAllCustomers();
@@ -119,6 +152,7 @@ public class BillController {
             // Calculate total amount from items
             BigDecimal totalAmount = BigDecimal.ZERO;
             List<BillItem> billItems = new ArrayList<>();
+            Map<Long, Item> itemsById = itemService.findItemsByIds(itemIds);
 
             for (int i = 0; i < itemIds.size(); i++) {
                 Long itemId = itemIds.get(i);
@@ -126,8 +160,10 @@ public class BillController {
                 BigDecimal unitPrice = unitPrices.get(i);
 
                 if (quantity > 0) { // Only add items with positive quantity
-                    Item item = itemService.findItemById(itemId)
-                            .orElseThrow(() -> new RuntimeException("Item not found: " + itemId));
+                    Item item = itemsById.get(itemId);
+                    if (item == null) {
+                        throw new RuntimeException("Item not found: " + itemId);
+                    }
 
                     BillItem billItem = new BillItem();
                     billItem.setBill(bill);
@@ -177,24 +213,13 @@ public class BillController {
         }
 
         try {
-            Bill existingBill = billService.findBillById(id)
-                    .orElseThrow(() -> new RuntimeException("Bill not found"));
-
-            // Update bill fields
-            existingBill.setCustomer(bill.getCustomer());
-            existingBill.setTotalAmount(bill.getTotalAmount());
-            existingBill.setTaxAmount(bill.getTaxAmount());
-            existingBill.setDiscountAmount(bill.getDiscountAmount());
-            existingBill.setFinalAmount(bill.getFinalAmount());
-            existingBill.setStatus(bill.getStatus());
-
-            // Update paid date if status is PAID
-            if (bill.getStatus() == Bill.BillStatus.PAID && existingBill.getPaidAt() == null) {
-                existingBill.setPaidAt(LocalDateTime.now());
-            }
-
-            billService.saveBill(existingBill);
+            // Checks the version the form was rendered with: the bill is still managed by the
+            // request's session, where Hibernate would ignore a version set on it here
+            billService.updateBill(id, bill);
             redirectAttributes.addFlashAttribute("success", "Bill updated successfully!");
+        } catch (OptimisticLockingFailureException e) {
+            redirectAttributes.addFlashAttribute("error",
+                "Bill was changed by someone else while you were editing it. Please review the current values and try again.");
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("error", "Error updating bill: " + e.getMessage());
         }
@@ -249,4 +274,112 @@ public class BillController {
 
         return "redirect:/bills";
     }
+
+    @PostMapping("/status")
+    @ResponseBody
+    public ResponseEntity<?> transitionBills(@RequestBody BillStatusTransitionRequest request) {
+        try {
+            BillStatusTransitionResult result = billService.transitionBills(request);
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Error updating bills: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/recalculate")
+    public String recalculateBills(RedirectAttributes redirectAttributes) {
+        try {
+            long updated = billRecalculationService.recalculateAllBills();
+            redirectAttributes.addFlashAttribute("success", "Recalculated totals for " + updated + " bills!");
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("error", "Error recalculating bills: " + e.getMessage());
+        }
+
+        return "redirect:/bills";
+    }
+
+    @PostMapping("/archive")
+    public String archiveBills(RedirectAttributes redirectAttributes) {
+        try {
+            long archived = billArchiveService.archiveOldBills();
+            redirectAttributes.addFlashAttribute("success", "Archived " + archived + " old bills!");
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("error", "Error archiving bills: " + e.getMessage());
+        }
+
+        return "redirect:/bills";
+    }
+
+    // Archived bills are only returned when asked for explicitly
+    @GetMapping("/archive")
+    @ResponseBody
+    public ResponseEntity<?> viewArchivedBills(@RequestParam(required = false) Long customerId,
+                                               @RequestParam(defaultValue = "0") int page,
+                                               @RequestParam(defaultValue = "20") int size) {
+        Pageable pageable = PageRequest.of(page, Math.max(1, Math.min(size, 100)), Sort.by("createdAt").descending());
+        return ResponseEntity.ok(customerId != null
+                ? billArchiveService.findArchivedBillsByCustomer(customerId, pageable)
+                : billArchiveService.findArchivedBills(pageable));
+    }
+
+    @GetMapping("/archive/{id}")
+    @ResponseBody
+    public ResponseEntity<?> viewArchivedBill(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(billArchiveService.getArchivedBill(id));
+        } catch (Exception e) {
+            return ResponseEntity.status(404).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Printable receipt. Rendering happens on the receipt workers, never on the request thread:
+    // until the file is ready the browser gets 202 with a Refresh header and asks again.
+    // Bills are normally rendered ahead of time when they are paid.
+    @GetMapping("/{id}/receipt")
+    public ResponseEntity<?> viewReceipt(@PathVariable Long id, HttpServletRequest request) {
+        CompletableFuture<Path> receipt;
+        try {
+            receipt = receiptService.getReceipt(id);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+        if (!receipt.isDone()) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .header("Retry-After", "1")
+                    .header("Refresh", "1")
+                    .contentType(MediaType.TEXT_PLAIN)
+                    .body("Receipt is being prepared...");
+        }
+        try {
+            return receiptResponse(receipt.join(), request);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "5").build();
+            }
+            return ResponseEntity.internalServerError()
+                    .body(Map.of("error", "Error rendering receipt: " + e.getCause().getMessage()));
+        }
+    }
+
+    // Hands the cached file to Tomcat's sendfile (zero-copy from the page cache to the socket)
+    // when the connector supports it, otherwise streams it
+    private ResponseEntity<?> receiptResponse(Path file, HttpServletRequest request) {
+        try {
+            long length = Files.size(file);
+            String version = file.getFileName().toString().replace(".html", "");
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .contentType(new MediaType(MediaType.TEXT_HTML, StandardCharsets.UTF_8))
+                    .contentLength(length)
+                    .eTag(version);
+            if (Boolean.TRUE.equals(request.getAttribute("org.apache.tomcat.sendfile.support"))) {
+                request.setAttribute("org.apache.tomcat.sendfile.filename", file.toAbsolutePath().toString());
+                request.setAttribute("org.apache.tomcat.sendfile.start", 0L);
+                request.setAttribute("org.apache.tomcat.sendfile.end", length);
+                return response.build();
+            }
+            return response.body(new FileSystemResource(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
@@ -3,7 +3,11 @@ package com.springboot.project.controller;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import org.springframework.security.core.Authentication;
 import com.springboot.project.service.CustomerService;
+import com.springboot.project.service.CodeAllocator;
+import com.springboot.project.dto.CustomerBillHistory;
+import com.springboot.project.dto.CustomerSummary;
 import org.springframework.validation.BindingResult;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
@@ -15,14 +19,18 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.ui.Model;
 import jakarta.validation.Valid;
 import java.util.List;
-import java.util.UUID;
+import java.util.Set;
 
 @Controller
 @RequestMapping("/customers")
 @RequiredArgsConstructor
 public class CustomerController {
     
+    // Sort columns backed by an index (see db/migration V2__performance_indexes.sql)
+    private static final Set<String> SORTABLE_COLUMNS = Set.of("id", "accountNumber", "name", "createdAt");
+
     private final CustomerService customerService;
+    private final CodeAllocator codeAllocator;
     
     @GetMapping
     public String customersPage(
@@ -38,6 +46,11 @@ public class CustomerController {
         model.addAttribute("username", authentication.getName());
         
         try {
+            // Fall back to the default column for anything that would need a full table sort
+            if (!SORTABLE_COLUMNS.contains(sortBy)) {
+                sortBy = "name";
+            }
+
             Sort sort = sortDir.equalsIgnoreCase("desc") ? 
                 Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
             
@@ -86,13 +99,8 @@ public class CustomerController {
         }
         
         try {
-            // Generate unique account number
-            customer.setAccountNumber(generateAccountNumber());
-            
-            // Check if account number already exists (unlikely but safety check)
-            while (customerService.existsByAccountNumber(customer.getAccountNumber())) {
-                customer.setAccountNumber(generateAccountNumber());
-            }
+            // Unique by construction, no existence check needed
+            customer.setAccountNumber(codeAllocator.nextAccountNumber());
             
             customerService.saveCustomer(customer);
             redirectAttributes.addFlashAttribute("success", 
@@ -107,15 +115,29 @@ public class CustomerController {
     }
     
     @GetMapping("/{id}")
-    public String viewCustomer(@PathVariable Long id, Model model, Authentication authentication) {
+    public String viewCustomer(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            Model model,
+            Authentication authentication) {
         try {
             Customer customer = customerService.findCustomerById(id)
                 .orElseThrow(() -> new RuntimeException("Customer not found"));
             
+            // Aggregates come from one query; only one page of bills is read
+            CustomerSummary summary = customerService.getCustomerSummary(id);
+            CustomerBillHistory history = customerService.getBillHistory(id, cursor, size);
+            
             model.addAttribute("customer", customer);
+            model.addAttribute("summary", summary);
+            model.addAttribute("bills", history.getBills());
+            model.addAttribute("nextCursor", history.getNextCursor());
+            model.addAttribute("cursor", cursor);
+            model.addAttribute("size", size);
             model.addAttribute("username", authentication.getName());
             
-            return "customer-details"; // We'll create this view later
+            return "customer-details";
             
         } catch (Exception e) {
             model.addAttribute("error", "Customer not found");
@@ -137,19 +159,15 @@ public class CustomerController {
         }
         
         try {
-            Customer existingCustomer = customerService.findCustomerById(id)
-                .orElseThrow(() -> new RuntimeException("Customer not found"));
-            
-            // Update fields but keep the account number and creation date
-            existingCustomer.setName(customer.getName());
-            existingCustomer.setEmail(customer.getEmail());
-            existingCustomer.setTelephone(customer.getTelephone());
-            existingCustomer.setAddress(customer.getAddress());
-            
-            customerService.saveCustomer(existingCustomer);
+            // Keeps the account number and creation date, and checks the version the form was
+            // rendered with: a version set on the request's managed entity would be ignored
+            customerService.updateCustomer(id, customer);
             redirectAttributes.addFlashAttribute("success", 
                 "Customer '" + customer.getName() + "' updated successfully!");
             
+        } catch (OptimisticLockingFailureException e) {
+            redirectAttributes.addFlashAttribute("error",
+                "Customer was changed by someone else while you were editing it. Please review the current values and try again.");
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("error", 
                 "Error updating customer: " + e.getMessage());
@@ -178,6 +196,21 @@ public class CustomerController {
         return "redirect:/customers";
     }
     
+    @GetMapping("/{id}/summary")
+    @ResponseBody
+    public CustomerSummary customerSummary(@PathVariable Long id) {
+        return customerService.getCustomerSummary(id);
+    }
+    
+    @GetMapping("/{id}/bills")
+    @ResponseBody
+    public CustomerBillHistory customerBills(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return customerService.getBillHistory(id, cursor, size);
+    }
+    
     @GetMapping("/search")
     @ResponseBody
     public List<Customer> searchCustomers(@RequestParam String query) {
@@ -187,10 +220,4 @@ public class CustomerController {
             return List.of();
         }
     }
-    
-    private String generateAccountNumber() {
-        // Generate account number like ACC-YYYYMMDD-XXXX where XXXX is random
-        return "ACC-" + java.time.LocalDate.now().toString().replace("-", "") + 
-               "-" + UUID.randomUUID().toString().substring(0, 4).toUpperCase();
-    }
 }
@@ -0,0 +1,32 @@
+package com.springboot.project.controller;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import com.springboot.project.service.DashboardBroadcaster;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import com.springboot.project.service.DashboardService;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/dashboard")
+@RequiredArgsConstructor
+public class DashboardController {
+
+    private final DashboardService dashboardService;
+    private final DashboardBroadcaster dashboardBroadcaster;
+
+    // Live dashboard: a "snapshot" event on connect, then "counters" (changed fields only)
+    // and "activity" events as they happen
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream() {
+        SseEmitter emitter = dashboardBroadcaster.connect(dashboardService.getSnapshot());
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "30").build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+}
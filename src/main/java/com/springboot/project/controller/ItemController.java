@@ -3,26 +3,45 @@ package com.springboot.project.controller;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import org.springframework.security.core.Authentication;
 import org.springframework.validation.BindingResult;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.PageRequest;
 import com.springboot.project.service.ItemService;
+import com.springboot.project.service.CodeAllocator;
+import com.springboot.project.service.StockLedgerService;
+import org.springframework.format.annotation.DateTimeFormat;
+import com.springboot.project.dto.StockMovementRequest;
+import com.springboot.project.entity.StockMovement;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.stereotype.Controller;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Sort;
+import com.springboot.project.dto.ItemBulkAdjustmentRequest;
+import com.springboot.project.dto.ItemBulkAdjustmentResult;
+import org.springframework.http.ResponseEntity;
+import com.springboot.project.dto.ItemSuggestion;
+import com.springboot.project.dto.LowStockItem;
 import com.springboot.project.entity.Item;
 import lombok.RequiredArgsConstructor;
 import org.springframework.ui.Model;
 import jakarta.validation.Valid;
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.UUID;
+import java.util.Set;
+import java.util.Objects;
+import java.util.Map;
 
 @Controller
 @RequestMapping("/items")
 @RequiredArgsConstructor
 public class ItemController {
     
+    // Sort columns backed by an index (see db/migration V2__performance_indexes.sql)
+    private static final Set<String> SORTABLE_COLUMNS = Set.of("id", "itemCode", "name", "stockQuantity", "createdAt");
+
     private final ItemService itemService;
+    private final CodeAllocator codeAllocator;
+    private final StockLedgerService stockLedgerService;
     
     @GetMapping
     public String itemsPage(
@@ -38,6 +57,11 @@ public class ItemController {
         model.addAttribute("username", authentication.getName());
         
         try {
+            // Fall back to the default column for anything that would need a full table sort
+            if (!SORTABLE_COLUMNS.contains(sortBy)) {
+                sortBy = "name";
+            }
+
             Sort sort = sortDir.equalsIgnoreCase("desc") ? 
                 Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
             
@@ -89,13 +113,14 @@ public class ItemController {
         }
         
         try {
-            // Generate unique item code if not provided
+            // Generated codes are unique by construction; only a code given by the client is checked
             if (item.getItemCode() == null || item.getItemCode().trim().isEmpty()) {
-                item.setItemCode(generateItemCode());
-            }
-            
-            // Check if item code already exists
-            if (itemService.existsByItemCode(item.getItemCode())) {
+                item.setItemCode(codeAllocator.nextItemCode());
+            } else if (codeAllocator.isGeneratedItemCode(item.getItemCode())) {
+                redirectAttributes.addFlashAttribute("error",
+                    "Item codes like '" + item.getItemCode() + "' are reserved for generated codes; leave the code empty to get one");
+                return "redirect:/items";
+            } else if (itemService.existsByItemCode(item.getItemCode())) {
                 redirectAttributes.addFlashAttribute("error", 
                     "Item code '" + item.getItemCode() + "' already exists!");
                 return "redirect:/items";
@@ -147,18 +172,24 @@ public class ItemController {
             Item existingItem = itemService.findItemById(id)
                 .orElseThrow(() -> new RuntimeException("Item not found"));
             
-            // Update fields but keep the creation date
-            existingItem.setItemCode(item.getItemCode());
-            existingItem.setName(item.getName());
-            existingItem.setDescription(item.getDescription());
-            existingItem.setPrice(item.getPrice());
-            existingItem.setStockQuantity(item.getStockQuantity());
-            existingItem.setStatus(item.getStatus());
-            
-            itemService.saveItem(existingItem);
+            // A generated code may be kept, but not taken over from the reserved range
+            if (!Objects.equals(item.getItemCode(), existingItem.getItemCode())
+                    && codeAllocator.isGeneratedItemCode(item.getItemCode())) {
+                redirectAttributes.addFlashAttribute("error",
+                    "Item codes like '" + item.getItemCode() + "' are reserved for generated codes");
+                return "redirect:/items";
+            }
+
+            // Keeps the creation date, records a stock change in the ledger and checks the
+            // version the form was rendered with: a version set on the request's managed
+            // entity would be ignored
+            itemService.updateItem(id, item);
             redirectAttributes.addFlashAttribute("success", 
                 "Item '" + item.getName() + "' updated successfully!");
             
+        } catch (OptimisticLockingFailureException e) {
+            redirectAttributes.addFlashAttribute("error",
+                "Item was changed by someone else while you were editing it. Please review the current values and try again.");
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("error", 
                 "Error updating item: " + e.getMessage());
@@ -187,19 +218,57 @@ public class ItemController {
         return "redirect:/items";
     }
     
+    // Autocomplete for the bill form: top matches among active items, served from memory
     @GetMapping("/search")
     @ResponseBody
-    public List<Item> searchItems(@RequestParam String query) {
+    public List<ItemSuggestion> searchItems(@RequestParam String query,
+                                            @RequestParam(defaultValue = "10") int limit) {
+        return itemService.suggestItems(query, Math.max(1, Math.min(limit, 50)));
+    }
+    
+    // Current low-stock set, read from memory
+    @GetMapping("/low-stock")
+    @ResponseBody
+    public List<LowStockItem> lowStockItems() {
+        return itemService.findItemsBelowReorderThreshold();
+    }
+    
+    // Bulk repricing and stock-takes over explicit ids or a filter, see ItemService.adjustItems
+    @PostMapping("/adjust")
+    @ResponseBody
+    public ResponseEntity<?> adjustItems(@RequestBody ItemBulkAdjustmentRequest request) {
         try {
-            return itemService.searchByKeyword(query);
+            ItemBulkAdjustmentResult result = itemService.adjustItems(request);
+            return ResponseEntity.ok(result);
         } catch (Exception e) {
-            return List.of();
+            return ResponseEntity.badRequest().body(Map.of("error", "Error adjusting items: " + e.getMessage()));
         }
     }
     
-    private String generateItemCode() {
-        // Generate item code like ITM-YYYYMMDD-XXXX where XXXX is random
-        return "ITM-" + java.time.LocalDate.now().toString().replace("-", "") + 
-               "-" + UUID.randomUUID().toString().substring(0, 4).toUpperCase();
+    // Receipts, sales, returns and adjustments; appended to the stock ledger in one transaction
+    @PostMapping("/movements")
+    @ResponseBody
+    public ResponseEntity<?> recordMovements(@RequestBody List<StockMovementRequest> movements) {
+        try {
+            return ResponseEntity.ok(Map.of("recorded", stockLedgerService.record(movements).size()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Error recording stock movements: " + e.getMessage()));
+        }
+    }
+    
+    // Stock from the ledger, now or as of the given time
+    @GetMapping("/{id}/stock")
+    @ResponseBody
+    public Map<String, Object> stock(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        int quantity = asOf != null ? stockLedgerService.stockAsOf(id, asOf) : stockLedgerService.currentStock(id);
+        return Map.of("itemId", id, "asOf", asOf != null ? asOf : LocalDateTime.now(), "quantity", quantity);
+    }
+    
+    @GetMapping("/{id}/movements")
+    @ResponseBody
+    public List<StockMovement> movements(@PathVariable Long id, @RequestParam(defaultValue = "50") int limit) {
+        return stockLedgerService.recentMovements(id, Math.max(1, Math.min(limit, 500)));
     }
 }
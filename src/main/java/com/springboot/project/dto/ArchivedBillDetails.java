@@ -0,0 +1,14 @@
+package com.springboot.project.dto;
+
+import com.springboot.project.entity.ArchivedBillItem;
+import com.springboot.project.entity.ArchivedBill;
+import lombok.AllArgsConstructor;
+import java.util.List;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ArchivedBillDetails {
+    private ArchivedBill bill;
+    private List<ArchivedBillItem> items;
+}
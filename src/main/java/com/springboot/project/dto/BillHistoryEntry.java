@@ -0,0 +1,18 @@
+package com.springboot.project.dto;
+
+import com.springboot.project.entity.Bill;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+import java.math.BigDecimal;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class BillHistoryEntry {
+    private Long id;
+    private String billNumber;
+    private Bill.BillStatus status;
+    private BigDecimal finalAmount;
+    private LocalDateTime createdAt;
+    private LocalDateTime paidAt;
+}
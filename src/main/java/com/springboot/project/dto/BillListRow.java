@@ -0,0 +1,27 @@
+package com.springboot.project.dto;
+
+import com.springboot.project.entity.Bill;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+import java.math.BigDecimal;
+import lombok.Getter;
+
+// One row of the bill list. Pages of these are shared between concurrent requests
+// (SingleFlight), so it is a plain immutable value, not an entity tied to the session that
+// loaded it.
+@Getter
+@AllArgsConstructor
+public class BillListRow {
+    private final Long id;
+    private final Long version;
+    private final String billNumber;
+    private final Bill.BillStatus status;
+    private final BigDecimal totalAmount;
+    private final BigDecimal taxAmount;
+    private final BigDecimal discountAmount;
+    private final BigDecimal finalAmount;
+    private final LocalDateTime createdAt;
+    private final Long customerId;
+    private final String customerName;
+    private final String customerAccountNumber;
+}
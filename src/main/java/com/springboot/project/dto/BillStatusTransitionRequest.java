@@ -0,0 +1,20 @@
+package com.springboot.project.dto;
+
+import com.springboot.project.entity.Bill;
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.Data;
+
+@Data
+public class BillStatusTransitionRequest {
+    private Bill.BillStatus targetStatus;
+
+    // Either explicit bill ids (and no filter)...
+    private List<Long> billIds;
+
+    // ...or a filter with at least one field set; unset fields are not filtered on
+    private Bill.BillStatus status;
+    private Long customerId;
+    private LocalDateTime createdFrom;
+    private LocalDateTime createdTo;
+}
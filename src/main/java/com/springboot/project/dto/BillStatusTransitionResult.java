@@ -0,0 +1,31 @@
+package com.springboot.project.dto;
+
+import com.springboot.project.entity.Bill;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.Data;
+
+@Data
+public class BillStatusTransitionResult {
+    private Bill.BillStatus targetStatus;
+    private int transitioned;
+    private int skipped;
+    private Map<Long, Outcome> outcomes = new LinkedHashMap<>();
+
+    public BillStatusTransitionResult(Bill.BillStatus targetStatus) {
+        this.targetStatus = targetStatus;
+    }
+
+    public void record(Long billId, Outcome outcome) {
+        outcomes.put(billId, outcome);
+        if (outcome == Outcome.TRANSITIONED) {
+            transitioned++;
+        } else {
+            skipped++;
+        }
+    }
+
+    public enum Outcome {
+        TRANSITIONED, ALREADY_IN_STATUS, INVALID_TRANSITION, CONFLICT, NOT_FOUND
+    }
+}
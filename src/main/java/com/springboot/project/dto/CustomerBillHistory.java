@@ -0,0 +1,14 @@
+package com.springboot.project.dto;
+
+import lombok.AllArgsConstructor;
+import java.util.List;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class CustomerBillHistory {
+    private List<BillHistoryEntry> bills;
+
+    // Keyset cursor for the next (older) page, null on the last page
+    private String nextCursor;
+}
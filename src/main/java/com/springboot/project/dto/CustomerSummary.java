@@ -0,0 +1,41 @@
+package com.springboot.project.dto;
+
+import java.time.LocalDateTime;
+import java.math.BigDecimal;
+import lombok.Data;
+
+@Data
+public class CustomerSummary {
+    private long totalBills;
+    private long draftBills;
+    private long confirmedBills;
+    private long paidBills;
+    private long cancelledBills;
+    private BigDecimal lifetimeSpend;
+    private BigDecimal outstandingBalance;
+    private LocalDateTime lastPurchaseAt;
+
+    // Used by the aggregate query in BillRepository; sums over no rows come back as null
+    public CustomerSummary(Long totalBills, Long draftBills, Long confirmedBills, Long paidBills,
+                           Long cancelledBills, BigDecimal lifetimeSpend, BigDecimal outstandingBalance,
+                           LocalDateTime lastPurchaseAt) {
+        this.totalBills = totalBills != null ? totalBills : 0;
+        this.draftBills = draftBills != null ? draftBills : 0;
+        this.confirmedBills = confirmedBills != null ? confirmedBills : 0;
+        this.paidBills = paidBills != null ? paidBills : 0;
+        this.cancelledBills = cancelledBills != null ? cancelledBills : 0;
+        this.lifetimeSpend = lifetimeSpend != null ? lifetimeSpend : BigDecimal.ZERO;
+        this.outstandingBalance = outstandingBalance != null ? outstandingBalance : BigDecimal.ZERO;
+        this.lastPurchaseAt = lastPurchaseAt;
+    }
+
+    // Adds the figures of another set of bills, e.g. the customer's archived ones
+    public CustomerSummary plus(CustomerSummary other) {
+        return new CustomerSummary(totalBills + other.totalBills, draftBills + other.draftBills,
+                confirmedBills + other.confirmedBills, paidBills + other.paidBills,
+                cancelledBills + other.cancelledBills, lifetimeSpend.add(other.lifetimeSpend),
+                outstandingBalance.add(other.outstandingBalance),
+                lastPurchaseAt == null || (other.lastPurchaseAt != null && other.lastPurchaseAt.isAfter(lastPurchaseAt))
+                        ? other.lastPurchaseAt : lastPurchaseAt);
+    }
+}
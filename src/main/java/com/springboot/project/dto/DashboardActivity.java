@@ -0,0 +1,15 @@
+package com.springboot.project.dto;
+
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+import lombok.Data;
+
+// One line of the dashboard's live activity feed, built from an outbox event
+@Data
+@AllArgsConstructor
+public class DashboardActivity {
+    private String type;
+    private Long aggregateId;
+    private String message;
+    private LocalDateTime at;
+}
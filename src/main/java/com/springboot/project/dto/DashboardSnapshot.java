@@ -0,0 +1,18 @@
+package com.springboot.project.dto;
+
+import lombok.AllArgsConstructor;
+import java.util.List;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class DashboardSnapshot {
+    private long totalCustomers;
+    private long totalItems;
+    private long activeItems;
+    private long lowStockItems;
+    private long totalBills;
+    private long paidBills;
+    private long draftBills;
+    private List<LowStockItem> lowStock;
+}
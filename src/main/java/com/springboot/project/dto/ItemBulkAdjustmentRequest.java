@@ -0,0 +1,37 @@
+package com.springboot.project.dto;
+
+import com.springboot.project.entity.Item;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import lombok.Data;
+
+@Data
+public class ItemBulkAdjustmentRequest {
+    // Price: PERCENT (+5 raises by 5%), AMOUNT (added, may be negative) or SET; unset leaves prices alone
+    private PriceMode priceMode;
+    private BigDecimal priceValue;
+
+    // Stock: SET (stock-take count) or DELTA (added, may be negative); unset leaves stock alone
+    private StockMode stockMode;
+    private Integer stockValue;
+
+    // Either explicit item ids...
+    private List<Long> itemIds;
+
+    // ...or a filter; unset fields are not filtered on, but at least one has to be set
+    private Item.ItemStatus status;
+    private String keyword;
+
+    // A stock-take upload: the counted quantity per item id. Sets each item to its own count,
+    // on its own, without the modes, ids or filter above.
+    private Map<Long, Integer> counts;
+
+    public enum PriceMode {
+        PERCENT, AMOUNT, SET
+    }
+
+    public enum StockMode {
+        SET, DELTA
+    }
+}
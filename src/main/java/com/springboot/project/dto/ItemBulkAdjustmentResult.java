@@ -0,0 +1,28 @@
+package com.springboot.project.dto;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.Data;
+
+@Data
+public class ItemBulkAdjustmentResult {
+    private int adjusted;
+    private int skipped;
+    private int outOfStock;
+    private int backInStock;
+    private Map<Long, Outcome> outcomes = new LinkedHashMap<>();
+
+    public void record(Long itemId, Outcome outcome) {
+        outcomes.put(itemId, outcome);
+        if (outcome == Outcome.ADJUSTED) {
+            adjusted++;
+        } else {
+            skipped++;
+        }
+    }
+
+    public enum Outcome {
+        // OUT_OF_RANGE: the change would take the price to zero or below, or the stock below zero
+        ADJUSTED, OUT_OF_RANGE, NOT_FOUND
+    }
+}
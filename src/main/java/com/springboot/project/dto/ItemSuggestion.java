@@ -0,0 +1,16 @@
+package com.springboot.project.dto;
+
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Autocomplete entry; only what the bill form shows and needs to add a line
+@Data
+@AllArgsConstructor
+public class ItemSuggestion {
+    private Long id;
+    private String itemCode;
+    private String name;
+    private BigDecimal price;
+    private Integer stockQuantity;
+}
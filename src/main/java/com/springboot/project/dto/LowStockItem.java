@@ -0,0 +1,14 @@
+package com.springboot.project.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class LowStockItem {
+    private Long id;
+    private String itemCode;
+    private String name;
+    private Integer stockQuantity;
+    private Integer reorderThreshold;
+}
@@ -0,0 +1,16 @@
+package com.springboot.project.dto;
+
+import lombok.AllArgsConstructor;
+import java.math.BigDecimal;
+import lombok.Data;
+
+// One group of a sales report: an item, customer, day (epoch day) or hour of day
+@Data
+@AllArgsConstructor
+public class SalesAggregate {
+    private long key;
+    private String label;
+    private BigDecimal revenue;
+    private long quantity;
+    private long lines;
+}
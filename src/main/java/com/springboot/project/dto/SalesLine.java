@@ -0,0 +1,21 @@
+package com.springboot.project.dto;
+
+import com.springboot.project.entity.Bill;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+import java.math.BigDecimal;
+import lombok.Data;
+
+// One bill line joined to its bill, as loaded into SalesAnalyticsEngine
+@Data
+@AllArgsConstructor
+public class SalesLine {
+    private Long id;
+    private Long billId;
+    private Long itemId;
+    private Long customerId;
+    private Integer quantity;
+    private BigDecimal totalPrice;
+    private LocalDateTime createdAt;
+    private Bill.BillStatus status;
+}
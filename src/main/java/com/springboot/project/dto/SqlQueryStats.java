@@ -0,0 +1,20 @@
+package com.springboot.project.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class SqlQueryStats {
+    private String sql;
+    private long count;
+    private double totalMillis;
+    private double meanMillis;
+    private double maxMillis;
+    private long rows;
+    private long binds;
+    private long slowCount;
+    // Application method that first ran this query, and the one behind its slowest run
+    private String origin;
+    private String slowestOrigin;
+}
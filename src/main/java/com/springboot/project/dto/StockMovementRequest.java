@@ -0,0 +1,16 @@
+package com.springboot.project.dto;
+
+import com.springboot.project.entity.StockMovement;
+import lombok.Data;
+
+@Data
+public class StockMovementRequest {
+    private Long itemId;
+    private StockMovement.MovementType type;
+
+    // Positive for receipts, sales and returns; signed for adjustments
+    private Integer quantity;
+
+    private Long billId;
+    private String note;
+}
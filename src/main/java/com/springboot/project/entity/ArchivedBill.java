@@ -0,0 +1,53 @@
+package com.springboot.project.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import jakarta.persistence.*;
+import lombok.*;
+
+// Cold copy of a PAID or CANCELLED bill moved out of the bills table by BillArchiveService.
+// Keeps the original id and bill number; the customer is referenced by id only.
+@Entity
+@Table(name = "bills_archive", indexes = {
+    @Index(name = "idx_bills_archive_customer_created_at", columnList = "customer_id, created_at"),
+    @Index(name = "idx_bills_archive_status_created_at", columnList = "status, created_at")
+})
+@Data
+@Getter @Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedBill {
+
+    @Id
+    private Long id;
+
+    @Column(name = "bill_number")
+    private String billNumber;
+
+    @Column(name = "customer_id", nullable = false)
+    private Long customerId;
+
+    @Column(name = "total_amount", precision = 10, scale = 2)
+    private BigDecimal totalAmount;
+
+    @Column(name = "tax_amount", precision = 10, scale = 2)
+    private BigDecimal taxAmount;
+
+    @Column(name = "discount_amount", precision = 10, scale = 2)
+    private BigDecimal discountAmount;
+
+    @Column(name = "final_amount", precision = 10, scale = 2)
+    private BigDecimal finalAmount;
+
+    @Enumerated(EnumType.STRING)
+    private Bill.BillStatus status;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "paid_at")
+    private LocalDateTime paidAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
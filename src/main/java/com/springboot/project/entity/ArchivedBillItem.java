@@ -0,0 +1,34 @@
+package com.springboot.project.entity;
+
+import java.math.BigDecimal;
+import jakarta.persistence.*;
+import lombok.*;
+
+// Line of an ArchivedBill, keeps the original bill_items id
+@Entity
+@Table(name = "bill_items_archive", indexes = {
+    @Index(name = "idx_bill_items_archive_bill_id", columnList = "bill_id")
+})
+@Data
+@Getter @Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedBillItem {
+
+    @Id
+    private Long id;
+
+    @Column(name = "bill_id", nullable = false)
+    private Long billId;
+
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+
+    private Integer quantity;
+
+    @Column(name = "unit_price", precision = 10, scale = 2)
+    private BigDecimal unitPrice;
+
+    @Column(name = "total_price", precision = 10, scale = 2)
+    private BigDecimal totalPrice;
+}
@@ -7,7 +7,12 @@ import java.util.List;
 import lombok.*;
 
 @Entity
-@Table(name = "bills")
+@Table(name = "bills", indexes = {
+    @Index(name = "idx_bills_status_created_at", columnList = "status, created_at"),
+    @Index(name = "idx_bills_created_at", columnList = "created_at"),
+    @Index(name = "idx_bills_customer_status", columnList = "customer_id, status"),
+    @Index(name = "idx_bills_customer_created_at", columnList = "customer_id, created_at")
+})
 @Data
 @Getter @Setter
 @NoArgsConstructor
@@ -18,6 +23,10 @@ public class Bill {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Optimistic locking: every update bumps it, and a write based on an older version fails
+    @Version
+    private Long version;
+
     @Column(name = "bill_number", unique = true)
     private String billNumber;
 
@@ -55,6 +64,17 @@ public class Bill {
     }
 
     public enum BillStatus {
-        DRAFT, CONFIRMED, PAID, CANCELLED
+        DRAFT, CONFIRMED, PAID, CANCELLED;
+
+        // Statuses a bill may move into this one from: DRAFT -> CONFIRMED -> PAID, and
+        // open (DRAFT or CONFIRMED) bills may be cancelled
+        public List<BillStatus> allowedPreviousStatuses() {
+            return switch (this) {
+                case DRAFT -> List.of();
+                case CONFIRMED -> List.of(DRAFT);
+                case PAID -> List.of(CONFIRMED);
+                case CANCELLED -> List.of(DRAFT, CONFIRMED);
+            };
+        }
     }
 }
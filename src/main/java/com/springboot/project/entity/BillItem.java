@@ -5,7 +5,10 @@ import java.math.BigDecimal;
 import lombok.*;
 
 @Entity
-@Table(name = "bill_items")
+@Table(name = "bill_items", indexes = {
+    @Index(name = "idx_bill_items_bill_id", columnList = "bill_id"),
+    @Index(name = "idx_bill_items_item_id", columnList = "item_id")
+})
 @Data
 @Getter @Setter
 @NoArgsConstructor
@@ -0,0 +1,21 @@
+package com.springboot.project.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// High-water mark of one code sequence, see CodeAllocator
+@Entity
+@Table(name = "code_blocks")
+@Data
+@Getter @Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CodeBlock {
+
+    @Id
+    @Column(length = 32)
+    private String name;
+
+    @Column(name = "next_value", nullable = false)
+    private Long nextValue;
+}
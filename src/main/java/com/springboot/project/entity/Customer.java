@@ -2,13 +2,17 @@ package com.springboot.project.entity;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.time.LocalDateTime;
 import jakarta.persistence.*;
 import java.util.List;
 import lombok.*;
 
 @Entity
-@Table(name = "customers")
+@Table(name = "customers", indexes = {
+    @Index(name = "idx_customers_name", columnList = "name"),
+    @Index(name = "idx_customers_created_at", columnList = "created_at")
+})
 @Data
 @Getter @Setter
 @NoArgsConstructor
@@ -19,6 +23,10 @@ public class Customer {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Optimistic locking: every update bumps it, and a write based on an older version fails
+    @Version
+    private Long version;
+
     @Column(unique = true, name = "account_number")
     private String accountNumber;
 
@@ -37,6 +45,13 @@ public class Customer {
     @Column(name = "created_at")
     private LocalDateTime createdAt =  LocalDateTime.now();
 
+    // Set when the customer is archived instead of deleted
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
+    // Not part of the customer's JSON (/customers/search): it would load every customer's
+    // bills one query at a time; bill history has its own paged endpoint
+    @JsonIgnore
     @OneToMany(mappedBy = "customer", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Bill> bills;
 
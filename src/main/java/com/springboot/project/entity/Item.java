@@ -3,13 +3,18 @@ package com.springboot.project.entity;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Min;
 import java.time.LocalDateTime;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 import lombok.*;
 
 @Entity
-@Table(name = "items")
+@Table(name = "items", indexes = {
+    @Index(name = "idx_items_stock_quantity", columnList = "stock_quantity"),
+    @Index(name = "idx_items_status_name", columnList = "status, name"),
+    @Index(name = "idx_items_created_at", columnList = "created_at")
+})
 @Data
 @Getter @Setter
 @NoArgsConstructor
@@ -20,6 +25,10 @@ public class Item {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Optimistic locking: every update bumps it, and a write based on an older version fails
+    @Version
+    private Long version;
+
     @Column(name = "item_code", unique = true)
     private String itemCode;
 
@@ -38,6 +47,12 @@ public class Item {
     @Column(name = "stock_quantity")
     private Integer stockQuantity = 0;
 
+    // The item counts as low on stock once stockQuantity drops to or below this
+    @NotNull(message = "Reorder threshold is required")
+    @Min(value = 0, message = "Reorder threshold cannot be negative")
+    @Column(name = "reorder_threshold")
+    private Integer reorderThreshold = 10;
+
     @Enumerated(EnumType.STRING)
     private ItemStatus status = ItemStatus.ACTIVE;
 
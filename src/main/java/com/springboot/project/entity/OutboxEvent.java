@@ -0,0 +1,76 @@
+package com.springboot.project.entity;
+
+import java.time.LocalDateTime;
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Table(name = "outbox_events")
+@Data
+@Getter @Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "aggregate_type", nullable = false)
+    private String aggregateType;
+
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false)
+    private EventType eventType;
+
+    // JSON document describing the change
+    @Column(length = 4000)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    private int attempts;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    // After a failure the event is not dispatched again before this time; null means now
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    public OutboxEvent(EventType eventType, Long aggregateId, String payload) {
+        this.eventType = eventType;
+        this.aggregateType = eventType.getAggregateType();
+        this.aggregateId = aggregateId;
+        this.payload = payload;
+    }
+
+    public enum EventType {
+        BILL_CREATED("Bill"),
+        BILL_UPDATED("Bill"),
+        BILL_STATUS_CHANGED("Bill"),
+        BILL_DELETED("Bill"),
+        ITEM_CHANGED("Item"),
+        ITEM_LOW_STOCK("Item"),
+        ITEM_RESTOCKED("Item"),
+        CUSTOMER_CHANGED("Customer"),
+        CUSTOMER_DELETED("Customer");
+
+        private final String aggregateType;
+
+        EventType(String aggregateType) {
+            this.aggregateType = aggregateType;
+        }
+
+        public String getAggregateType() {
+            return aggregateType;
+        }
+    }
+}
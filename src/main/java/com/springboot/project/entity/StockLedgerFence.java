@@ -0,0 +1,15 @@
+package com.springboot.project.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// The single row StockLedgerFenceRepository locks; it carries no data
+@Entity
+@Table(name = "stock_ledger_fence")
+@Getter @Setter
+@NoArgsConstructor
+public class StockLedgerFence {
+
+    @Id
+    private Integer id;
+}
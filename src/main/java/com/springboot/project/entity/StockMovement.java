@@ -0,0 +1,55 @@
+package com.springboot.project.entity;
+
+import java.time.LocalDateTime;
+import jakarta.persistence.*;
+import lombok.*;
+
+// One entry of the append-only stock ledger. Quantity is signed: receipts and returns add
+// stock, sales take it away, adjustments go either way. Rows are never updated or deleted.
+@Entity
+@Table(name = "stock_movements", indexes = {
+    @Index(name = "idx_stock_movements_item_id", columnList = "item_id, id"),
+    @Index(name = "idx_stock_movements_bill_id", columnList = "bill_id")
+})
+@Data
+@Getter @Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockMovement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Plain id rather than a relation, so recording a movement never touches the item row
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "movement_type", nullable = false)
+    private MovementType type;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    // The bill a sale or return belongs to
+    @Column(name = "bill_id")
+    private Long billId;
+
+    private String note;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public StockMovement(Long itemId, MovementType type, Integer quantity, Long billId, String note) {
+        this.itemId = itemId;
+        this.type = type;
+        this.quantity = quantity;
+        this.billId = billId;
+        this.note = note;
+    }
+
+    public enum MovementType {
+        RECEIPT, SALE, RETURN, ADJUSTMENT
+    }
+}
@@ -0,0 +1,44 @@
+package com.springboot.project.entity;
+
+import java.time.LocalDateTime;
+import jakarta.persistence.*;
+import lombok.*;
+
+// Stock of one item after every ledger movement up to movementId. Written by compaction for
+// the items that moved since the previous one; older snapshots are kept to answer
+// "stock as of" questions without summing the whole ledger.
+@Entity
+@Table(name = "stock_snapshots", indexes = {
+    @Index(name = "idx_stock_snapshots_item_movement", columnList = "item_id, movement_id", unique = true),
+    @Index(name = "idx_stock_snapshots_movement_id", columnList = "movement_id")
+})
+@Data
+@Getter @Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+
+    @Column(name = "movement_id", nullable = false)
+    private Long movementId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    // Time of the item's last movement included
+    @Column(name = "as_of", nullable = false)
+    private LocalDateTime asOf;
+
+    public StockSnapshot(Long itemId, Long movementId, Integer quantity, LocalDateTime asOf) {
+        this.itemId = itemId;
+        this.movementId = movementId;
+        this.quantity = quantity;
+        this.asOf = asOf;
+    }
+}
@@ -0,0 +1,14 @@
+package com.springboot.project.event;
+
+import com.springboot.project.dto.LowStockItem;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Published in-process after commit when an item drops to its reorder threshold (low = true)
+// or is restocked above it (low = false)
+@Data
+@AllArgsConstructor
+public class LowStockCrossedEvent {
+    private LowStockItem item;
+    private boolean low;
+}
@@ -0,0 +1,120 @@
+package com.springboot.project.filter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Gradient-style adaptive concurrency limit for one endpoint group.
+// A long-term average of request latency is compared with the recent latency; while the
+// recent latency stays within tolerance of the long-term one the limit grows by about
+// sqrt(limit), and when requests start queueing (latency rises) it shrinks proportionally.
+public class AdaptiveConcurrencyLimiter {
+
+    public enum Priority {
+        CRITICAL, NORMAL, SHEDDABLE
+    }
+
+    private static final int SHORT_WINDOW = 10;
+    private static final int LONG_WINDOW = 600;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final double normalShare;
+    private final double sheddableShare;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+    private volatile double limit;
+
+    // Guarded by this
+    private double shortRtt;
+    private double longRtt;
+    private int samples;
+    private int maxInflightInWindow;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance,
+                                      double smoothing, double normalShare, double sheddableShare) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.normalShare = normalShare;
+        this.sheddableShare = sheddableShare;
+    }
+
+    // Lower priorities may only use part of the limit, so they are shed first
+    public boolean tryAcquire(Priority priority) {
+        double share = switch (priority) {
+            case CRITICAL -> 1.0;
+            case NORMAL -> normalShare;
+            case SHEDDABLE -> sheddableShare;
+        };
+        int allowed = Math.max(1, (int) (limit * share));
+        while (true) {
+            int current = inflight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // Releases a slot; latency is only fed to the limit for requests that completed normally
+    public void release(long rttNanos, boolean sample) {
+        int inflightAtRelease = inflight.getAndDecrement();
+        if (sample) {
+            onSample(rttNanos, inflightAtRelease);
+        }
+    }
+
+    private synchronized void onSample(long rttNanos, int inflightAtRelease) {
+        double rtt = rttNanos;
+        maxInflightInWindow = Math.max(maxInflightInWindow, inflightAtRelease);
+        if (longRtt == 0) {
+            shortRtt = rtt;
+            longRtt = rtt;
+        } else {
+            shortRtt += (rtt - shortRtt) / SHORT_WINDOW;
+            longRtt += (rtt - longRtt) / LONG_WINDOW;
+        }
+        if (++samples < SHORT_WINDOW) {
+            return;
+        }
+        samples = 0;
+
+        // After a sustained slowdown, let the baseline follow so the limit can recover
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+
+        int usedInWindow = maxInflightInWindow;
+        maxInflightInWindow = 0;
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        newLimit = limit * (1 - smoothing) + newLimit * smoothing;
+        // Don't grow the limit while the group isn't using it (app-limited traffic)
+        if (newLimit > limit && usedInWindow < limit / 2) {
+            return;
+        }
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    public double getShortRttMillis() {
+        return shortRtt / 1_000_000;
+    }
+
+    public double getLongRttMillis() {
+        return longRtt / 1_000_000;
+    }
+}
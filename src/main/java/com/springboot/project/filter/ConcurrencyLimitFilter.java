@@ -0,0 +1,119 @@
+package com.springboot.project.filter;
+
+import com.springboot.project.filter.AdaptiveConcurrencyLimiter.Priority;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.core.annotation.Order;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Gauge;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.FilterChain;
+import lombok.extern.slf4j.Slf4j;
+import java.util.LinkedHashMap;
+import java.io.IOException;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+// Load shedding for the /bills, /customers and /items endpoint groups. Each group has its
+// own adaptive concurrency limit; requests over it get an immediate 503 with Retry-After
+// instead of queueing on Tomcat threads behind the database lock. Runs after Spring Security.
+@Slf4j
+@Component
+@Order(0)
+@ConditionalOnProperty(name = "app.concurrency.enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final String[] GROUPS = {"bills", "customers", "items"};
+
+    // Bill creation and payment of single bills; these keep the full limit
+    private static final Pattern CRITICAL_BILL_WRITES = Pattern.compile("^/bills(/\\d+/(confirm|pay|cancel))?$");
+
+    // Bulk jobs, including bulk status transitions, are as deferrable as reporting
+    private static final Pattern BULK_JOBS = Pattern.compile("^/(bills/(status|recalculate|archive)|items/adjust)$");
+
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters = new LinkedHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final int retryAfterSeconds;
+
+    public ConcurrencyLimitFilter(MeterRegistry meterRegistry,
+                                  @Value("${app.concurrency.initial-limit:20}") int initialLimit,
+                                  @Value("${app.concurrency.min-limit:4}") int minLimit,
+                                  @Value("${app.concurrency.max-limit:200}") int maxLimit,
+                                  @Value("${app.concurrency.tolerance:1.5}") double tolerance,
+                                  @Value("${app.concurrency.smoothing:0.2}") double smoothing,
+                                  @Value("${app.concurrency.normal-share:0.8}") double normalShare,
+                                  @Value("${app.concurrency.sheddable-share:0.5}") double sheddableShare,
+                                  @Value("${app.concurrency.retry-after-seconds:1}") int retryAfterSeconds) {
+        this.meterRegistry = meterRegistry;
+        this.retryAfterSeconds = retryAfterSeconds;
+        for (String group : GROUPS) {
+            AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit,
+                    tolerance, smoothing, normalShare, sheddableShare);
+            limiters.put(group, limiter);
+            Gauge.builder("http.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                    .tag("group", group)
+                    .register(meterRegistry);
+            Gauge.builder("http.concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getInflight)
+                    .tag("group", group)
+                    .register(meterRegistry);
+            Gauge.builder("http.concurrency.rtt", limiter, AdaptiveConcurrencyLimiter::getShortRttMillis)
+                    .tag("group", group)
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String group = groupOf(path);
+        AdaptiveConcurrencyLimiter limiter = group != null ? limiters.get(group) : null;
+        if (limiter == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        Priority priority = priorityOf(request.getMethod(), path);
+        if (!limiter.tryAcquire(priority)) {
+            meterRegistry.counter("http.concurrency.rejected", "group", group, "priority", priority.name()).increment();
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+            response.setContentType("text/plain;charset=UTF-8");
+            response.getWriter().write("Server busy, please retry shortly.");
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean completed = false;
+        try {
+            chain.doFilter(request, response);
+            completed = true;
+        } finally {
+            limiter.release(System.nanoTime() - start, completed);
+        }
+    }
+
+    private String groupOf(String path) {
+        for (String group : GROUPS) {
+            if (path.equals("/" + group) || path.startsWith("/" + group + "/")) {
+                return group;
+            }
+        }
+        return null;
+    }
+
+    private Priority priorityOf(String method, String path) {
+        if ("GET".equals(method) || BULK_JOBS.matcher(path).matches()) {
+            return Priority.SHEDDABLE;
+        }
+        if ("POST".equals(method) && CRITICAL_BILL_WRITES.matcher(path).matches()) {
+            return Priority.CRITICAL;
+        }
+        return Priority.NORMAL;
+    }
+}
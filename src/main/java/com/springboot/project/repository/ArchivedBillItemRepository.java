@@ -0,0 +1,35 @@
+package com.springboot.project.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import com.springboot.project.entity.ArchivedBillItem;
+import com.springboot.project.dto.SalesLine;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ArchivedBillItemRepository extends JpaRepository<ArchivedBillItem, Long> {
+
+    // Copies the lines of the given bills into the archive, keeping their ids
+    @Modifying
+    @Query("INSERT INTO ArchivedBillItem (id, billId, itemId, quantity, unitPrice, totalPrice) " +
+           "SELECT bi.id, bi.bill.id, bi.item.id, bi.quantity, bi.unitPrice, bi.totalPrice " +
+           "FROM BillItem bi WHERE bi.bill.id IN :billIds")
+    int copyFromBillItems(@Param("billIds") Collection<Long> billIds);
+
+    List<ArchivedBillItem> findByBillId(Long billId);
+
+    @Modifying
+    @Query("DELETE FROM ArchivedBillItem bi WHERE bi.billId IN (SELECT b.id FROM ArchivedBill b WHERE b.customerId = :customerId)")
+    int bulkDeleteByCustomerId(@Param("customerId") Long customerId);
+
+    // Keyset pages of archived lines joined to their bill, ordered by (bill id, line id), for the analytics load
+    @Query("SELECT new com.springboot.project.dto.SalesLine(bi.id, b.id, bi.itemId, b.customerId, bi.quantity, bi.totalPrice, b.createdAt, b.status) " +
+           "FROM ArchivedBillItem bi JOIN ArchivedBill b ON b.id = bi.billId " +
+           "WHERE b.id > :afterBillId OR (b.id = :afterBillId AND bi.id > :afterId) ORDER BY b.id, bi.id")
+    List<SalesLine> findSalesLinesAfter(@Param("afterBillId") Long afterBillId, @Param("afterId") Long afterId, Limit limit);
+}
@@ -0,0 +1,72 @@
+package com.springboot.project.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.repository.query.Param;
+import com.springboot.project.entity.ArchivedBill;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.data.domain.Pageable;
+import com.springboot.project.entity.Bill;
+import com.springboot.project.dto.BillHistoryEntry;
+import com.springboot.project.dto.CustomerSummary;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import java.time.LocalDateTime;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ArchivedBillRepository extends JpaRepository<ArchivedBill, Long> {
+
+    // Copies bills into the archive in one INSERT ... SELECT, keeping their ids
+    @Modifying
+    @Query("INSERT INTO ArchivedBill (id, billNumber, customerId, totalAmount, taxAmount, discountAmount, " +
+           "finalAmount, status, createdAt, paidAt, archivedAt) " +
+           "SELECT b.id, b.billNumber, b.customer.id, b.totalAmount, b.taxAmount, b.discountAmount, " +
+           "b.finalAmount, b.status, b.createdAt, b.paidAt, :archivedAt FROM Bill b WHERE b.id IN :ids")
+    int copyFromBills(@Param("ids") Collection<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+
+    Page<ArchivedBill> findByCustomerIdOrderByCreatedAtDesc(Long customerId, Pageable pageable);
+
+    // The archived share of a customer's lifetime figures, the same aggregate as BillRepository.getCustomerSummary
+    @Query("SELECT new com.springboot.project.dto.CustomerSummary(" +
+           "COUNT(b), " +
+           "SUM(CASE WHEN b.status = 'DRAFT' THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN b.status = 'CONFIRMED' THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN b.status = 'PAID' THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN b.status = 'CANCELLED' THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN b.status = 'PAID' THEN b.finalAmount END), " +
+           "SUM(CASE WHEN b.status = 'CONFIRMED' THEN b.finalAmount END), " +
+           "MAX(CASE WHEN b.status <> 'CANCELLED' THEN b.createdAt END)) " +
+           "FROM ArchivedBill b WHERE b.customerId = :customerId")
+    CustomerSummary getCustomerSummary(@Param("customerId") Long customerId);
+
+    // Keyset pages of a customer's archived bills, in the same (createdAt, id) order as BillRepository
+    @Query("SELECT new com.springboot.project.dto.BillHistoryEntry(b.id, b.billNumber, b.status, b.finalAmount, b.createdAt, b.paidAt) " +
+           "FROM ArchivedBill b WHERE b.customerId = :customerId ORDER BY b.createdAt DESC, b.id DESC")
+    List<BillHistoryEntry> findBillHistory(@Param("customerId") Long customerId, Limit limit);
+
+    @Query("SELECT new com.springboot.project.dto.BillHistoryEntry(b.id, b.billNumber, b.status, b.finalAmount, b.createdAt, b.paidAt) " +
+           "FROM ArchivedBill b WHERE b.customerId = :customerId " +
+           "AND (b.createdAt < :createdAt OR (b.createdAt = :createdAt AND b.id < :id)) " +
+           "ORDER BY b.createdAt DESC, b.id DESC")
+    List<BillHistoryEntry> findBillHistoryBefore(@Param("customerId") Long customerId,
+                                                 @Param("createdAt") LocalDateTime createdAt,
+                                                 @Param("id") Long id,
+                                                 Limit limit);
+
+    @Query("SELECT b.id FROM ArchivedBill b WHERE b.customerId = :customerId")
+    List<Long> findIdsByCustomerId(@Param("customerId") Long customerId);
+
+    @Modifying
+    @Query("DELETE FROM ArchivedBill b WHERE b.customerId = :customerId")
+    int bulkDeleteByCustomerId(@Param("customerId") Long customerId);
+
+    @Query("SELECT SUM(b.totalAmount) FROM ArchivedBill b WHERE b.status = 'PAID' AND b.createdAt BETWEEN :startDate AND :endDate")
+    BigDecimal getTotalRevenueByDateRange(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+
+    @Query("SELECT COUNT(b) FROM ArchivedBill b WHERE b.status = :status")
+    Long countByStatus(@Param("status") Bill.BillStatus status);
+}
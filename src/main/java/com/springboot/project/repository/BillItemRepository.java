@@ -0,0 +1,47 @@
+package com.springboot.project.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import com.springboot.project.entity.BillItem;
+import com.springboot.project.dto.SalesLine;
+import org.springframework.data.domain.Limit;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface BillItemRepository extends JpaRepository<BillItem, Long> {
+
+    // Refresh line totals after unit price corrections, for the bills in an id range
+    @Modifying
+    @Query("UPDATE BillItem bi SET bi.totalPrice = bi.unitPrice * bi.quantity WHERE bi.bill.id BETWEEN :fromId AND :toId")
+    int recalculateLineTotalsForBillRange(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    @Query("SELECT bi FROM BillItem bi JOIN FETCH bi.item WHERE bi.bill.id = :billId ORDER BY bi.id")
+    List<BillItem> findByBillIdWithItem(@Param("billId") Long billId);
+
+    // Keyset pages of all lines joined to their bill, ordered by (bill id, line id), for the analytics load
+    @Query("SELECT new com.springboot.project.dto.SalesLine(bi.id, b.id, bi.item.id, b.customer.id, bi.quantity, bi.totalPrice, b.createdAt, b.status) " +
+           "FROM BillItem bi JOIN bi.bill b " +
+           "WHERE b.id > :afterBillId OR (b.id = :afterBillId AND bi.id > :afterId) ORDER BY b.id, bi.id")
+    List<SalesLine> findSalesLinesAfter(@Param("afterBillId") Long afterBillId, @Param("afterId") Long afterId, Limit limit);
+
+    @Query("SELECT new com.springboot.project.dto.SalesLine(bi.id, b.id, bi.item.id, b.customer.id, bi.quantity, bi.totalPrice, b.createdAt, b.status) " +
+           "FROM BillItem bi JOIN bi.bill b WHERE b.id = :billId ORDER BY bi.id")
+    List<SalesLine> findSalesLinesByBillId(@Param("billId") Long billId);
+
+    // Bulk deletes, bypassing the entity cascade so lines are never loaded
+    @Modifying
+    @Query("DELETE FROM BillItem bi WHERE bi.bill.id = :billId")
+    int bulkDeleteByBillId(@Param("billId") Long billId);
+
+    @Modifying
+    @Query("DELETE FROM BillItem bi WHERE bi.bill.id IN (SELECT b.id FROM Bill b WHERE b.customer.id = :customerId)")
+    int bulkDeleteByCustomerId(@Param("customerId") Long customerId);
+
+    @Modifying
+    @Query("DELETE FROM BillItem bi WHERE bi.bill.id IN :billIds")
+    int bulkDeleteByBillIdIn(@Param("billIds") Collection<Long> billIds);
+}
@@ -1,9 +1,19 @@
 package com.springboot.project.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.repository.query.Param;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.Lock;
+import com.springboot.project.dto.BillHistoryEntry;
+import com.springboot.project.dto.BillListRow;
+import com.springboot.project.dto.CustomerSummary;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Page;
 import  com.springboot.project.entity.Customer;
+import jakarta.persistence.LockModeType;
 import com.springboot.project.entity.Bill;
 import java.time.LocalDateTime;
 import java.math.BigDecimal;
@@ -29,6 +39,124 @@ public interface BillRepository extends JpaRepository<Bill, Long> {
     @Query("SELECT COUNT(b) FROM Bill b WHERE b.status = :status")
     Long countByStatus(@Param("status") Bill.BillStatus status);
 
+    // List page: the row and its customer's columns in one query, as detached values
+    @Query(value = "SELECT new com.springboot.project.dto.BillListRow(b.id, b.version, b.billNumber, b.status, " +
+                   "b.totalAmount, b.taxAmount, b.discountAmount, b.finalAmount, b.createdAt, " +
+                   "c.id, c.name, c.accountNumber) FROM Bill b JOIN b.customer c",
+           countQuery = "SELECT COUNT(b) FROM Bill b")
+    Page<BillListRow> findListPage(Pageable pageable);
+
+    // Receipts are rendered off the request thread, so everything they show is fetched up front
+    @EntityGraph(attributePaths = "customer")
+    @Query("SELECT b FROM Bill b WHERE b.id = :id")
+    Optional<Bill> findWithCustomerById(@Param("id") Long id);
+
     @Query("SELECT b FROM Bill b ORDER BY b.createdAt DESC")
     List<Bill> findAllOrderByBillDateDesc();
+
+    // Totals are summed from the line items in the database, the lines are never loaded
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Bill b SET b.version = b.version + 1, " +
+           "b.totalAmount = COALESCE((SELECT SUM(bi.unitPrice * bi.quantity) FROM BillItem bi WHERE bi.bill.id = b.id), 0), " +
+           "b.finalAmount = COALESCE((SELECT SUM(bi.unitPrice * bi.quantity) FROM BillItem bi WHERE bi.bill.id = b.id), 0) " +
+           "+ COALESCE(b.taxAmount, 0) - COALESCE(b.discountAmount, 0) " +
+           "WHERE b.id = :id")
+    int recalculateAmounts(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE Bill b SET b.version = b.version + 1, " +
+           "b.totalAmount = COALESCE((SELECT SUM(bi.unitPrice * bi.quantity) FROM BillItem bi WHERE bi.bill.id = b.id), 0), " +
+           "b.finalAmount = COALESCE((SELECT SUM(bi.unitPrice * bi.quantity) FROM BillItem bi WHERE bi.bill.id = b.id), 0) " +
+           "+ COALESCE(b.taxAmount, 0) - COALESCE(b.discountAmount, 0) " +
+           "WHERE b.id BETWEEN :fromId AND :toId")
+    int recalculateAmountsInRange(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    // Lifetime figures for one customer in a single aggregate pass over their bills
+    @Query("SELECT new com.springboot.project.dto.CustomerSummary(" +
+           "COUNT(b), " +
+           "SUM(CASE WHEN b.status = 'DRAFT' THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN b.status = 'CONFIRMED' THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN b.status = 'PAID' THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN b.status = 'CANCELLED' THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN b.status = 'PAID' THEN b.finalAmount END), " +
+           "SUM(CASE WHEN b.status = 'CONFIRMED' THEN b.finalAmount END), " +
+           "MAX(CASE WHEN b.status <> 'CANCELLED' THEN b.createdAt END)) " +
+           "FROM Bill b WHERE b.customer.id = :customerId")
+    CustomerSummary getCustomerSummary(@Param("customerId") Long customerId);
+
+    // Keyset pages of a customer's bills, newest first, ordered by (createdAt, id)
+    @Query("SELECT new com.springboot.project.dto.BillHistoryEntry(b.id, b.billNumber, b.status, b.finalAmount, b.createdAt, b.paidAt) " +
+           "FROM Bill b WHERE b.customer.id = :customerId ORDER BY b.createdAt DESC, b.id DESC")
+    List<BillHistoryEntry> findBillHistory(@Param("customerId") Long customerId, Limit limit);
+
+    @Query("SELECT new com.springboot.project.dto.BillHistoryEntry(b.id, b.billNumber, b.status, b.finalAmount, b.createdAt, b.paidAt) " +
+           "FROM Bill b WHERE b.customer.id = :customerId " +
+           "AND (b.createdAt < :createdAt OR (b.createdAt = :createdAt AND b.id < :id)) " +
+           "ORDER BY b.createdAt DESC, b.id DESC")
+    List<BillHistoryEntry> findBillHistoryBefore(@Param("customerId") Long customerId,
+                                                 @Param("createdAt") LocalDateTime createdAt,
+                                                 @Param("id") Long id,
+                                                 Limit limit);
+
+    @Query("SELECT b.id, b.status FROM Bill b WHERE b.id IN :ids")
+    List<Object[]> findStatusesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT b.id, b.status, b.version FROM Bill b WHERE b.id IN :ids")
+    List<Object[]> findStatusesAndVersionsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Same, holding the rows until the transaction ends; in id order so two batches can't deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b.id, b.status, b.version FROM Bill b WHERE b.id IN :ids ORDER BY b.id")
+    List<Object[]> lockStatusesAndVersionsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT b.id FROM Bill b WHERE (:status IS NULL OR b.status = :status) " +
+           "AND (:customerId IS NULL OR b.customer.id = :customerId) " +
+           "AND (:createdFrom IS NULL OR b.createdAt >= :createdFrom) " +
+           "AND (:createdTo IS NULL OR b.createdAt <= :createdTo)")
+    List<Long> findIdsByFilter(@Param("status") Bill.BillStatus status,
+                               @Param("customerId") Long customerId,
+                               @Param("createdFrom") LocalDateTime createdFrom,
+                               @Param("createdTo") LocalDateTime createdTo);
+
+    // Conditional transitions: only rows still in one of the allowed source statuses change
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Bill b SET b.status = :target, b.version = b.version + 1 WHERE b.id IN :ids AND b.status IN :sources")
+    int updateStatusWhereStatusIn(@Param("ids") Collection<Long> ids,
+                                  @Param("sources") Collection<Bill.BillStatus> sources,
+                                  @Param("target") Bill.BillStatus target);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Bill b SET b.status = 'PAID', b.paidAt = COALESCE(b.paidAt, :paidAt), b.version = b.version + 1 " +
+           "WHERE b.id IN :ids AND b.status IN :sources")
+    int markPaidWhereStatusIn(@Param("ids") Collection<Long> ids,
+                              @Param("sources") Collection<Bill.BillStatus> sources,
+                              @Param("paidAt") LocalDateTime paidAt);
+
+    // Bulk deletes, bypassing the entity cascade; line items must be deleted first
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM Bill b WHERE b.id = :id")
+    int bulkDeleteById(@Param("id") Long id);
+
+    @Query("SELECT b.id FROM Bill b WHERE b.customer.id = :customerId")
+    List<Long> findIdsByCustomerId(@Param("customerId") Long customerId);
+
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM Bill b WHERE b.customer.id = :customerId")
+    int bulkDeleteByCustomerId(@Param("customerId") Long customerId);
+
+    @Query("SELECT MIN(b.id) FROM Bill b")
+    Long findMinId();
+
+    @Query("SELECT MAX(b.id) FROM Bill b")
+    Long findMaxId();
+
+    // Archival candidates: settled bills created before the cutoff (idx_bills_status_created_at)
+    @Query("SELECT b.id FROM Bill b WHERE b.status IN :statuses AND b.createdAt < :cutoff ORDER BY b.id")
+    List<Long> findIdsToArchive(@Param("statuses") Collection<Bill.BillStatus> statuses,
+                                @Param("cutoff") LocalDateTime cutoff,
+                                Limit limit);
+
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM Bill b WHERE b.id IN :ids")
+    int bulkDeleteByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,21 @@
+package com.springboot.project.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import com.springboot.project.entity.CodeBlock;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CodeBlockRepository extends JpaRepository<CodeBlock, String> {
+
+    // The update locks the row until commit, so reading it back in the same transaction
+    // yields the end of a block no other node can also have reserved
+    @Modifying
+    @Query("UPDATE CodeBlock c SET c.nextValue = c.nextValue + :size WHERE c.name = :name")
+    int advance(@Param("name") String name, @Param("size") long size);
+
+    @Query("SELECT c.nextValue FROM CodeBlock c WHERE c.name = :name")
+    Long findNextValue(@Param("name") String name);
+}
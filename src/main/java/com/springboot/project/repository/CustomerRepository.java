@@ -1,12 +1,14 @@
 package com.springboot.project.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.repository.query.Param;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.domain.Pageable;
 import com.springboot.project.entity.Customer;
 import org.springframework.data.domain.Page;
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.List;
 
@@ -15,14 +17,28 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
     Optional<Customer> findByAccountNumber(String accountNumber);
     boolean existsByAccountNumber(String accountNumber);
     List<Customer> findByNameContainingIgnoreCase(String name);
+
+    // Active (not archived) customers
+    List<Customer> findByDeletedAtIsNull();
+    Page<Customer> findByDeletedAtIsNull(Pageable pageable);
+    long countByDeletedAtIsNull();
     
     // Pagination support
     Page<Customer> findByNameContainingIgnoreCaseOrEmailContainingIgnoreCaseOrTelephoneContainingIgnoreCase(
             String name, String email, String telephone, Pageable pageable);
 
-    @Query("SELECT c FROM Customer c WHERE c.name LIKE %:keyword% OR c.accountNumber LIKE %:keyword% OR c.email LIKE %:keyword% OR c.telephone LIKE %:keyword%")
+    @Query("SELECT c FROM Customer c WHERE c.deletedAt IS NULL AND (c.name LIKE %:keyword% OR c.accountNumber LIKE %:keyword% OR c.email LIKE %:keyword% OR c.telephone LIKE %:keyword%)")
     List<Customer> searchByKeyword(@Param("keyword") String keyword);
     
-    @Query("SELECT c FROM Customer c WHERE c.name LIKE %:keyword% OR c.accountNumber LIKE %:keyword% OR c.email LIKE %:keyword% OR c.telephone LIKE %:keyword%")
+    @Query("SELECT c FROM Customer c WHERE c.deletedAt IS NULL AND (c.name LIKE %:keyword% OR c.accountNumber LIKE %:keyword% OR c.email LIKE %:keyword% OR c.telephone LIKE %:keyword%)")
     Page<Customer> searchByKeyword(@Param("keyword") String keyword, Pageable pageable);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Customer c SET c.deletedAt = :deletedAt, c.version = c.version + 1 WHERE c.id = :id AND c.deletedAt IS NULL")
+    int archiveById(@Param("id") Long id, @Param("deletedAt") LocalDateTime deletedAt);
+
+    // Bulk delete, bypassing the entity cascade; bills and their lines must be deleted first
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM Customer c WHERE c.id = :id")
+    int bulkDeleteById(@Param("id") Long id);
 }
@@ -1,12 +1,19 @@
 package com.springboot.project.repository;
 
+import org.springframework.data.jpa.repository.QueryHints;
+import org.hibernate.jpa.HibernateHints;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.repository.query.Param;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Page;
+import com.springboot.project.dto.LowStockItem;
 import com.springboot.project.entity.Item;
+import java.util.Collection;
+import java.math.BigDecimal;
 import java.util.Optional;
 import java.util.List;
 
@@ -15,17 +22,83 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
     Optional<Item> findByItemCode(String itemCode);
     boolean existsByItemCode(String itemCode);
     List<Item> findByStatus(Item.ItemStatus status);
+    long countByStatus(Item.ItemStatus status);
     List<Item> findByNameContainingIgnoreCase(String name);
 
     @Query("SELECT i FROM Item i WHERE i.stockQuantity <= :threshold")
     List<Item> findLowStockItems(@Param("threshold") Integer threshold);
 
+    // Items at or below their own reorder threshold; only read once to seed LowStockWatcher
+    @Query("SELECT new com.springboot.project.dto.LowStockItem(i.id, i.itemCode, i.name, i.stockQuantity, i.reorderThreshold) " +
+           "FROM Item i WHERE i.stockQuantity <= i.reorderThreshold")
+    List<LowStockItem> findBelowReorderThreshold();
+
     @Query("SELECT i FROM Item i WHERE i.name LIKE %:keyword% OR i.itemCode LIKE %:keyword% OR i.description LIKE %:keyword%")
     List<Item> searchByKeyword(@Param("keyword") String keyword);
     
     @Query("SELECT i FROM Item i WHERE i.name LIKE %:keyword% OR i.itemCode LIKE %:keyword% OR i.description LIKE %:keyword%")
     Page<Item> searchByKeyword(@Param("keyword") String keyword, Pageable pageable);
 
+    // Only read once to seed ItemSearchIndex
+    @Query("SELECT i.id, i.itemCode, i.name, i.price, i.stockQuantity, i.status FROM Item i")
+    List<Object[]> findSearchEntries();
+
     @Query("SELECT i FROM Item i WHERE i.status = 'ACTIVE' ORDER BY i.name")
     List<Item> findActiveItemsOrderByName();
+
+    @Query("SELECT i.id FROM Item i WHERE (:status IS NULL OR i.status = :status) " +
+           "AND (:keyword IS NULL OR i.name LIKE CONCAT('%', :keyword, '%') " +
+           "OR i.itemCode LIKE CONCAT('%', :keyword, '%') OR i.description LIKE CONCAT('%', :keyword, '%'))")
+    List<Long> findIdsByFilter(@Param("status") Item.ItemStatus status, @Param("keyword") String keyword);
+
+    @Query("SELECT i.id FROM Item i WHERE i.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // The stored value: no auto-flush, so changes already made to a managed Item are not read back
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query("SELECT i.stockQuantity FROM Item i WHERE i.id = :id")
+    Integer findStockQuantityById(@Param("id") Long id);
+
+    @Query("SELECT i.id, i.version, i.status FROM Item i WHERE i.id IN :ids")
+    List<Object[]> findVersionsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // items.stock_quantity trails the ledger by up to one compaction; this brings it up to the
+    // ledger's stock (latest snapshot plus the movements after the watermark, as in
+    // StockLedgerService.currentStock) so a bulk adjustment computes from the real stock. Not
+    // an edit, so the version stays.
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Item i SET i.stockQuantity = " +
+           "COALESCE((SELECT s.quantity FROM StockSnapshot s WHERE s.itemId = i.id AND s.movementId = " +
+           "(SELECT MAX(s2.movementId) FROM StockSnapshot s2 WHERE s2.itemId = i.id)), 0) + " +
+           "COALESCE((SELECT SUM(m.quantity) FROM StockMovement m WHERE m.itemId = i.id AND m.id > " +
+           "(SELECT COALESCE(MAX(s3.movementId), 0) FROM StockSnapshot s3)), 0) " +
+           "WHERE i.id IN :ids")
+    int refreshStockFromLedger(@Param("ids") Collection<Long> ids);
+
+    // The compacted ledger's stock, with the status rule of ItemService.applyStock. A copy of
+    // the ledger rather than an edit, so the version stays and open edit forms remain valid.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Item i SET i.status = CASE WHEN :quantity <= 0 THEN :outOfStock " +
+           "WHEN i.status = :outOfStock THEN :active ELSE i.status END, " +
+           "i.stockQuantity = :quantity WHERE i.id = :id")
+    int syncStock(@Param("id") Long id, @Param("quantity") int quantity,
+                  @Param("outOfStock") Item.ItemStatus outOfStock, @Param("active") Item.ItemStatus active);
+
+    // One statement for every price/stock adjustment: price' = price * priceFactor + priceDelta and
+    // stock' = stock * stockFactor + stockDelta. Rows the change would take out of range are left
+    // alone. Status is assigned first so it is computed from the old stock on every database
+    // (MySQL applies assignments left to right), and only moves when the stock actually changes.
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Item i SET i.version = i.version + 1, " +
+           "i.status = CASE WHEN :stockFactor = 1 AND :stockDelta = 0 THEN i.status " +
+           "WHEN i.stockQuantity * :stockFactor + :stockDelta <= 0 THEN :outOfStock " +
+           "WHEN i.status = :outOfStock THEN :active ELSE i.status END, " +
+           "i.price = ROUND(i.price * :priceFactor + :priceDelta, 2), " +
+           "i.stockQuantity = i.stockQuantity * :stockFactor + :stockDelta " +
+           "WHERE i.id IN :ids AND ROUND(i.price * :priceFactor + :priceDelta, 2) > 0 " +
+           "AND i.stockQuantity * :stockFactor + :stockDelta >= 0")
+    int adjust(@Param("ids") Collection<Long> ids,
+               @Param("priceFactor") BigDecimal priceFactor, @Param("priceDelta") BigDecimal priceDelta,
+               @Param("stockFactor") int stockFactor, @Param("stockDelta") int stockDelta,
+               @Param("outOfStock") Item.ItemStatus outOfStock, @Param("active") Item.ItemStatus active);
 }
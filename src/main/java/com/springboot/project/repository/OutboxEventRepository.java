@@ -0,0 +1,41 @@
+package com.springboot.project.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.jpa.repository.Query;
+import com.springboot.project.entity.OutboxEvent;
+import org.springframework.stereotype.Repository;
+import org.springframework.data.domain.Limit;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Pending events that are due. An event waiting for its retry also holds back the later
+    // events of its aggregate, so they are still delivered in order.
+    @Query("SELECT e FROM OutboxEvent e WHERE e.processedAt IS NULL AND NOT EXISTS (" +
+           "SELECT w.id FROM OutboxEvent w WHERE w.aggregateType = e.aggregateType AND w.aggregateId = e.aggregateId " +
+           "AND w.id <= e.id AND w.processedAt IS NULL AND w.nextAttemptAt > :now) ORDER BY e.id")
+    List<OutboxEvent> findPending(@Param("now") LocalDateTime now, Limit limit);
+
+    @Query("SELECT COUNT(e) FROM OutboxEvent e WHERE e.processedAt IS NULL")
+    long countPending();
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.processedAt = :processedAt, e.attempts = e.attempts + 1 WHERE e.id IN :ids")
+    int markProcessed(@Param("ids") Collection<Long> ids, @Param("processedAt") LocalDateTime processedAt);
+
+    // processedAt stays null while the event should be retried, and is set once it is given up on
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.attempts = e.attempts + 1, e.lastError = :error, e.processedAt = :processedAt, " +
+           "e.nextAttemptAt = :nextAttemptAt WHERE e.id = :id")
+    int recordFailure(@Param("id") Long id, @Param("error") String error, @Param("processedAt") LocalDateTime processedAt,
+                      @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.processedAt < :cutoff")
+    int deleteProcessedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
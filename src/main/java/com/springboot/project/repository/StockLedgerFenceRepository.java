@@ -0,0 +1,24 @@
+package com.springboot.project.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import com.springboot.project.entity.StockLedgerFence;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.stereotype.Repository;
+import jakarta.persistence.LockModeType;
+
+// Row locks held until the transaction ends. On H2 a shared lock is exclusive as well, and
+// SQLite ignores both: it runs one writer at a time anyway.
+@Repository
+public interface StockLedgerFenceRepository extends JpaRepository<StockLedgerFence, Integer> {
+
+    // Taken by every transaction that appends to the ledger, before it takes a movement id
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT f FROM StockLedgerFence f WHERE f.id = 1")
+    StockLedgerFence lockShared();
+
+    // Waits until every writer that holds the shared lock has committed or rolled back
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT f FROM StockLedgerFence f WHERE f.id = 1")
+    StockLedgerFence lockExclusive();
+}
@@ -0,0 +1,63 @@
+package com.springboot.project.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import com.springboot.project.entity.StockMovement;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.data.domain.Limit;
+import java.time.LocalDateTime;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+
+    // One movement per line of the given bills; sign is -1 for a sale and 1 for a return
+    @Modifying
+    @Query("INSERT INTO StockMovement (itemId, type, quantity, billId, createdAt) " +
+           "SELECT bi.item.id, :type, bi.quantity * :sign, bi.bill.id, :now " +
+           "FROM BillItem bi WHERE bi.bill.id IN :billIds AND bi.quantity IS NOT NULL")
+    int insertForBillLines(@Param("billIds") Collection<Long> billIds,
+                           @Param("type") StockMovement.MovementType type,
+                           @Param("sign") int sign,
+                           @Param("now") LocalDateTime now);
+
+    // The change ItemRepository.adjust is about to make to each row's stock, for the rows it will
+    // change (same range conditions). Runs after ItemRepository.refreshStockFromLedger, so
+    // i.stockQuantity is the ledger's stock here and the difference is taken from that.
+    @Modifying
+    @Query("INSERT INTO StockMovement (itemId, type, quantity, note, createdAt) " +
+           "SELECT i.id, :type, i.stockQuantity * :stockFactor + :stockDelta - i.stockQuantity, :note, :now " +
+           "FROM Item i WHERE i.id IN :itemIds AND ROUND(i.price * :priceFactor + :priceDelta, 2) > 0 " +
+           "AND i.stockQuantity * :stockFactor + :stockDelta >= 0 " +
+           "AND i.stockQuantity * :stockFactor + :stockDelta <> i.stockQuantity")
+    int insertBulkAdjustments(@Param("itemIds") Collection<Long> itemIds,
+                              @Param("priceFactor") BigDecimal priceFactor, @Param("priceDelta") BigDecimal priceDelta,
+                              @Param("stockFactor") int stockFactor, @Param("stockDelta") int stockDelta,
+                              @Param("type") StockMovement.MovementType type,
+                              @Param("note") String note,
+                              @Param("now") LocalDateTime now);
+
+    // Only read by compaction under the exclusive ledger fence, when no lower id is still to commit
+    @Query("SELECT COALESCE(MAX(m.id), 0) FROM StockMovement m")
+    Long findLastId();
+
+    @Query("SELECT m.itemId, SUM(m.quantity), MAX(m.createdAt) FROM StockMovement m " +
+           "WHERE m.id > :fromId AND m.id <= :toId GROUP BY m.itemId")
+    List<Object[]> sumByItemInRange(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    // The ledger tail: movements not yet folded into a snapshot
+    @Query("SELECT m.itemId, SUM(m.quantity) FROM StockMovement m " +
+           "WHERE m.itemId IN :itemIds AND m.id > :afterId GROUP BY m.itemId")
+    List<Object[]> sumByItemAfter(@Param("itemIds") Collection<Long> itemIds, @Param("afterId") Long afterId);
+
+    @Query("SELECT COALESCE(SUM(m.quantity), 0) FROM StockMovement m " +
+           "WHERE m.itemId = :itemId AND m.id > :afterId AND m.createdAt <= :asOf")
+    Long sumForItemAfter(@Param("itemId") Long itemId, @Param("afterId") Long afterId,
+                         @Param("asOf") LocalDateTime asOf);
+
+    List<StockMovement> findByItemIdOrderByIdDesc(Long itemId, Limit limit);
+}
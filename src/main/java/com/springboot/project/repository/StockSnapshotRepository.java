@@ -0,0 +1,25 @@
+package com.springboot.project.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import com.springboot.project.entity.StockSnapshot;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.List;
+
+@Repository
+public interface StockSnapshotRepository extends JpaRepository<StockSnapshot, Long> {
+
+    // Every movement up to here is folded into the latest snapshot of its item
+    @Query("SELECT COALESCE(MAX(s.movementId), 0) FROM StockSnapshot s")
+    Long findWatermark();
+
+    @Query("SELECT s.itemId, s.quantity FROM StockSnapshot s WHERE s.itemId IN :itemIds " +
+           "AND s.movementId = (SELECT MAX(s2.movementId) FROM StockSnapshot s2 WHERE s2.itemId = s.itemId)")
+    List<Object[]> findLatestQuantities(@Param("itemIds") Collection<Long> itemIds);
+
+    Optional<StockSnapshot> findFirstByItemIdAndAsOfLessThanEqualOrderByMovementIdDesc(Long itemId, LocalDateTime asOf);
+}
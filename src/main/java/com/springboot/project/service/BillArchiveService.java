@@ -0,0 +1,113 @@
+package com.springboot.project.service;
+
+import org.springframework.transaction.support.TransactionTemplate;
+import com.springboot.project.repository.ArchivedBillItemRepository;
+import org.springframework.transaction.annotation.Transactional;
+import com.springboot.project.repository.ArchivedBillRepository;
+import com.springboot.project.repository.BillItemRepository;
+import com.springboot.project.repository.BillRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import com.springboot.project.dto.ArchivedBillDetails;
+import org.springframework.beans.factory.annotation.Value;
+import com.springboot.project.entity.ArchivedBill;
+import org.springframework.stereotype.Service;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import com.springboot.project.entity.Bill;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import java.time.LocalDateTime;
+import java.math.BigDecimal;
+import java.util.List;
+
+// Moves settled bills past the archive age out of the hot bills/bill_items tables into
+// bills_archive/bill_items_archive. Archived bills are only read through this service.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BillArchiveService {
+
+    private static final List<Bill.BillStatus> ARCHIVABLE_STATUSES = List.of(Bill.BillStatus.PAID, Bill.BillStatus.CANCELLED);
+
+    private final BillRepository billRepository;
+    private final BillItemRepository billItemRepository;
+    private final ArchivedBillRepository archivedBillRepository;
+    private final ArchivedBillItemRepository archivedBillItemRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.bills.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.bills.archive.age-days:365}")
+    private int ageDays;
+
+    @Value("${app.bills.archive.chunk-size:500}")
+    private int chunkSize;
+
+    @Scheduled(cron = "${app.bills.archive.cron:0 30 2 * * *}")
+    public void archiveOnSchedule() {
+        if (enabled) {
+            archiveOldBills();
+        }
+    }
+
+    // Archives in chunks, each copied and deleted in its own short transaction
+    public long archiveOldBills() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(ageDays);
+        long start = System.currentTimeMillis();
+        long archived = 0;
+        int moved;
+        do {
+            Integer chunk = transactionTemplate.execute(status -> archiveChunk(cutoff));
+            moved = chunk != null ? chunk : 0;
+            archived += moved;
+        } while (moved == chunkSize);
+
+        if (archived > 0) {
+            log.info("Archived {} bills created before {} in {} ms", archived, cutoff, System.currentTimeMillis() - start);
+        }
+        return archived;
+    }
+
+    private int archiveChunk(LocalDateTime cutoff) {
+        List<Long> ids = billRepository.findIdsToArchive(ARCHIVABLE_STATUSES, cutoff, Limit.of(chunkSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        archivedBillRepository.copyFromBills(ids, now);
+        archivedBillItemRepository.copyFromBillItems(ids);
+        billItemRepository.bulkDeleteByBillIdIn(ids);
+        billRepository.bulkDeleteByIdIn(ids);
+        return ids.size();
+    }
+
+    @Transactional(readOnly = true)
+    public Page<ArchivedBill> findArchivedBills(Pageable pageable) {
+        return archivedBillRepository.findAll(pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<ArchivedBill> findArchivedBillsByCustomer(Long customerId, Pageable pageable) {
+        return archivedBillRepository.findByCustomerIdOrderByCreatedAtDesc(customerId, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public ArchivedBillDetails getArchivedBill(Long id) {
+        ArchivedBill bill = archivedBillRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Archived bill not found with id: " + id));
+        return new ArchivedBillDetails(bill, archivedBillItemRepository.findByBillId(id));
+    }
+
+    @Transactional(readOnly = true)
+    public long countArchivedBills() {
+        return archivedBillRepository.count();
+    }
+
+    @Transactional(readOnly = true)
+    public BigDecimal getArchivedRevenueByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
+        BigDecimal revenue = archivedBillRepository.getTotalRevenueByDateRange(startDate, endDate);
+        return revenue != null ? revenue : BigDecimal.ZERO;
+    }
+}
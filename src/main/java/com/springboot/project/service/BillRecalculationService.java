@@ -0,0 +1,78 @@
+package com.springboot.project.service;
+
+import org.springframework.transaction.support.TransactionTemplate;
+import com.springboot.project.repository.BillItemRepository;
+import com.springboot.project.repository.BillRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import java.util.ArrayList;
+import java.util.List;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BillRecalculationService {
+
+    private final BillRepository billRepository;
+    private final BillItemRepository billItemRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final SalesAnalyticsEngine salesAnalyticsEngine;
+
+    @Value("${app.bills.recalculation.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.bills.recalculation.parallelism:1}")
+    private int parallelism;
+
+    // Recalculates line totals and bill amounts for every bill, e.g. after price corrections.
+    // Each key range is updated by two set-based statements in its own transaction.
+    public long recalculateAllBills() {
+        Long minId = billRepository.findMinId();
+        Long maxId = billRepository.findMaxId();
+        if (minId == null || maxId == null) {
+            return 0;
+        }
+
+        long start = System.currentTimeMillis();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, parallelism));
+        try {
+            List<Future<Integer>> chunks = new ArrayList<>();
+            for (long from = minId; from <= maxId; from += chunkSize) {
+                long fromId = from;
+                long toId = Math.min(from + chunkSize - 1, maxId);
+                chunks.add(executor.submit(() -> recalculateRange(fromId, toId)));
+            }
+
+            long updated = 0;
+            for (Future<Integer> chunk : chunks) {
+                updated += chunk.get();
+            }
+            log.info("Recalculated {} bills in {} chunks in {} ms",
+                    updated, chunks.size(), System.currentTimeMillis() - start);
+            // Line totals changed without outbox events
+            salesAnalyticsEngine.load();
+            return updated;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Bill recalculation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Bill recalculation failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private int recalculateRange(long fromId, long toId) {
+        Integer updated = transactionTemplate.execute(status -> {
+            billItemRepository.recalculateLineTotalsForBillRange(fromId, toId);
+            return billRepository.recalculateAmountsInRange(fromId, toId);
+        });
+        return updated != null ? updated : 0;
+    }
+}
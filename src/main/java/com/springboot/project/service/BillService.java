@@ -1,95 +1,160 @@
 package com.springboot.project.service;
 
+import com.springboot.project.dto.BillStatusTransitionRequest;
+import com.springboot.project.dto.BillListRow;
+import com.springboot.project.dto.BillStatusTransitionResult;
+import com.springboot.project.dto.BillStatusTransitionResult.Outcome;
+import com.springboot.project.repository.ArchivedBillRepository;
+import com.springboot.project.repository.BillItemRepository;
 import com.springboot.project.repository.BillRepository;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.beans.factory.annotation.Value;
+import com.springboot.project.entity.OutboxEvent.EventType;
 import com.springboot.project.entity.Customer;
 import org.springframework.data.domain.Page;
 import com.springboot.project.entity.Bill;
 import lombok.RequiredArgsConstructor;
 import java.time.LocalDateTime;
+import java.time.Duration;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Optional;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 public class BillService {
     
+    // Keeps IN lists well below the bind parameter limits of the supported databases
+    private static final int TRANSITION_BATCH_SIZE = 500;
+    
     private final BillRepository billRepository;
+    private final BillItemRepository billItemRepository;
+    private final ArchivedBillRepository archivedBillRepository;
+    private final OutboxService outboxService;
+    private final SingleFlight singleFlight;
+    private final OptimisticRetry optimisticRetry;
+    private final StockLedgerService stockLedgerService;
+    
+    // Concurrent requests for the same list page share one query; 0 means no reuse after it completes
+    @Value("${app.single-flight.bill-page-ttl-ms:0}")
+    private long billPageTtlMillis;
     
+    @Transactional
     public Bill saveBill(Bill bill) {
         // Auto-generate bill number if not provided
         if (bill.getBillNumber() == null || bill.getBillNumber().isEmpty()) {
             bill.setBillNumber(generateBillNumber());
         }
-        return billRepository.save(bill);
+        boolean created = bill.getId() == null;
+        Bill.BillStatus previous = created ? null : findStatuses(List.of(bill.getId())).get(bill.getId());
+        Bill saved = billRepository.save(bill);
+        recordStockMovements(saved.getId(), previous, saved.getStatus());
+        publishBillEvent(created ? EventType.BILL_CREATED : EventType.BILL_UPDATED, saved);
+        return saved;
     }
     
-    public Page<Bill> findAllBills(Pageable pageable) {
-        return billRepository.findAll(pageable);
+    // Not @Transactional: callers waiting on a shared query should not hold a connection,
+    // the leader's repository call runs in its own read-only transaction. The page is shared
+    // with other requests, so it holds DTOs: entities would stay attached to the leader's
+    // open-in-view session, which other threads must not use.
+    public Page<BillListRow> findAllBills(Pageable pageable) {
+        String key = "bill-page:" + pageable.getPageNumber() + ":" + pageable.getPageSize() + ":" + pageable.getSort();
+        return singleFlight.execute(key, Duration.ofMillis(billPageTtlMillis),
+                () -> billRepository.findListPage(pageable));
     }
     
+    @Transactional(readOnly = true)
     public List<Bill> findAllBills() {
         return billRepository.findAll();
     }
     
+    @Transactional(readOnly = true)
     public List<Bill> findAllBillsOrderByDateDesc() {
         return billRepository.findAllOrderByBillDateDesc();
     }
     
+    @Transactional(readOnly = true)
     public Optional<Bill> findBillById(Long id) {
         return billRepository.findById(id);
     }
     
+    @Transactional(readOnly = true)
     public Optional<Bill> findByBillNumber(String billNumber) {
         return billRepository.findByBillNumber(billNumber);
     }
     
+    @Transactional(readOnly = true)
     public List<Bill> findByCustomer(Customer customer) {
         return billRepository.findByCustomer(customer);
     }
     
+    @Transactional(readOnly = true)
     public List<Bill> findByStatus(Bill.BillStatus status) {
         return billRepository.findByStatus(status);
     }
     
+    @Transactional(readOnly = true)
     public List<Bill> findByCustomerIdAndStatus(Long customerId, Bill.BillStatus status) {
         return billRepository.findByCustomerIdAndStatus(customerId, status);
     }
     
+    @Transactional(readOnly = true)
     public List<Bill> findBillsBetweenDates(LocalDateTime startDate, LocalDateTime endDate) {
         return billRepository.findBillsBetweenDates(startDate, endDate);
     }
     
+    @Transactional(readOnly = true)
     public List<Bill> findByTotalAmountRange(BigDecimal minAmount, BigDecimal maxAmount) {
         return billRepository.findByTotalAmountRange(minAmount, maxAmount);
     }
     
+    // Fails with OptimisticLockingFailureException if updatedBill carries an outdated version
+    @Transactional
     public Bill updateBill(Long id, Bill updatedBill) {
         return billRepository.findById(id)
                 .map(bill -> {
+                    OptimisticRetry.checkVersion("Bill", id, updatedBill.getVersion(), bill.getVersion());
+                    Bill.BillStatus previous = bill.getStatus();
                     bill.setCustomer(updatedBill.getCustomer());
                     bill.setTotalAmount(updatedBill.getTotalAmount());
                     bill.setTaxAmount(updatedBill.getTaxAmount());
                     bill.setDiscountAmount(updatedBill.getDiscountAmount());
                     bill.setFinalAmount(updatedBill.getFinalAmount());
                     bill.setStatus(updatedBill.getStatus());
-                    return billRepository.save(bill);
+                    if (bill.getStatus() == Bill.BillStatus.PAID && bill.getPaidAt() == null) {
+                        bill.setPaidAt(LocalDateTime.now());
+                    }
+                    Bill saved = billRepository.save(bill);
+                    recordStockMovements(id, previous, saved.getStatus());
+                    publishBillEvent(EventType.BILL_UPDATED, saved);
+                    return saved;
                 })
                 .orElseThrow(() -> new RuntimeException("Bill not found with id: " + id));
     }
     
+    // Applied again to a fresh read on a version conflict
     public Bill updateBillStatus(Long id, Bill.BillStatus status) {
-        return billRepository.findById(id)
+        return optimisticRetry.execute(() -> billRepository.findById(id)
                 .map(bill -> {
+                    Bill.BillStatus previous = bill.getStatus();
                     bill.setStatus(status);
                     if (status == Bill.BillStatus.PAID && bill.getPaidAt() == null) {
                         bill.setPaidAt(LocalDateTime.now());
                     }
-                    return billRepository.save(bill);
+                    // Flushed first so the bill row is locked before the ledger fence, the same
+                    // order transitionBills takes them in
+                    Bill saved = billRepository.saveAndFlush(bill);
+                    recordStockMovements(id, previous, status);
+                    outboxService.publish(EventType.BILL_STATUS_CHANGED, id,
+                            OutboxService.payload("billId", id, "from", previous, "to", status));
+                    return saved;
                 })
-                .orElseThrow(() -> new RuntimeException("Bill not found with id: " + id));
+                .orElseThrow(() -> new RuntimeException("Bill not found with id: " + id)));
     }
     
     public Bill confirmBill(Long id) {
@@ -104,60 +169,186 @@ public class BillService {
         return updateBillStatus(id, Bill.BillStatus.CANCELLED);
     }
     
+    @Transactional
+    public BillStatusTransitionResult transitionBills(BillStatusTransitionRequest request) {
+        Bill.BillStatus target = request.getTargetStatus();
+        if (target == null || target.allowedPreviousStatuses().isEmpty()) {
+            throw new RuntimeException("Invalid target status: " + target);
+        }
+        
+        // Ids or a filter, never both, and never an empty filter: that would select every bill
+        boolean hasIds = request.getBillIds() != null && !request.getBillIds().isEmpty();
+        boolean hasFilter = request.getStatus() != null || request.getCustomerId() != null
+                || request.getCreatedFrom() != null || request.getCreatedTo() != null;
+        if (hasIds && hasFilter) {
+            throw new RuntimeException("Give either bill ids or a filter, not both");
+        }
+        if (!hasIds && !hasFilter) {
+            throw new RuntimeException("Give bill ids or at least one filter (status, customer, created from/to)");
+        }
+        
+        List<Long> ids = hasIds
+                ? request.getBillIds().stream().distinct().toList()
+                : billRepository.findIdsByFilter(request.getStatus(), request.getCustomerId(),
+                        request.getCreatedFrom(), request.getCreatedTo());
+        
+        BillStatusTransitionResult result = new BillStatusTransitionResult(target);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < ids.size(); i += TRANSITION_BATCH_SIZE) {
+            transitionBatch(ids.subList(i, Math.min(i + TRANSITION_BATCH_SIZE, ids.size())), target, now, result);
+        }
+        return result;
+    }
+    
+    private void transitionBatch(List<Long> ids, Bill.BillStatus target, LocalDateTime now,
+                                 BillStatusTransitionResult result) {
+        List<Bill.BillStatus> sources = target.allowedPreviousStatuses();
+        // Locked, so no other request can move a bill between this read and the update
+        Map<Long, BillState> before = toStates(billRepository.lockStatusesAndVersionsByIdIn(ids));
+        
+        List<Long> eligible = new ArrayList<>();
+        for (Long id : ids) {
+            BillState state = before.get(id);
+            if (state != null && sources.contains(state.status())) {
+                eligible.add(id);
+            }
+        }
+        
+        int updated = 0;
+        if (!eligible.isEmpty()) {
+            updated = target == Bill.BillStatus.PAID
+                    ? billRepository.markPaidWhereStatusIn(eligible, sources, now)
+                    : billRepository.updateStatusWhereStatusIn(eligible, sources, target);
+        }
+        
+        // If some eligible rows still missed the conditional update, re-read them: only a row at
+        // the target whose version went up by exactly this statement's one step moved here. A
+        // bill another request moved is a conflict, so its event and stock sale aren't repeated.
+        Map<Long, BillState> after = updated == eligible.size()
+                ? null : toStates(billRepository.findStatusesAndVersionsByIdIn(eligible));
+        
+        List<Long> transitioned = new ArrayList<>();
+        for (Long id : ids) {
+            BillState state = before.get(id);
+            Bill.BillStatus status = state != null ? state.status() : null;
+            if (status == null) {
+                result.record(id, Outcome.NOT_FOUND);
+            } else if (status == target) {
+                result.record(id, Outcome.ALREADY_IN_STATUS);
+            } else if (!sources.contains(status)) {
+                result.record(id, Outcome.INVALID_TRANSITION);
+            } else if (after == null || state.movedTo(after.get(id), target)) {
+                result.record(id, Outcome.TRANSITIONED);
+                transitioned.add(id);
+                outboxService.publish(EventType.BILL_STATUS_CHANGED, id,
+                        OutboxService.payload("billId", id, "from", status, "to", target));
+            } else {
+                result.record(id, Outcome.CONFLICT);
+            }
+        }
+        // PAID is only reached from CONFIRMED, so a bulk transition never reopens a paid bill
+        if (target == Bill.BillStatus.PAID) {
+            stockLedgerService.recordBillSales(transitioned);
+        }
+    }
+    
+    // The lines of a bill leave stock when it becomes PAID and come back if it stops being PAID
+    private void recordStockMovements(Long billId, Bill.BillStatus previous, Bill.BillStatus status) {
+        if (status == Bill.BillStatus.PAID && previous != Bill.BillStatus.PAID) {
+            stockLedgerService.recordBillSales(List.of(billId));
+        } else if (previous == Bill.BillStatus.PAID && status != Bill.BillStatus.PAID) {
+            stockLedgerService.recordBillReturns(List.of(billId));
+        }
+    }
+    
+    private static Map<Long, BillState> toStates(List<Object[]> rows) {
+        Map<Long, BillState> states = new HashMap<>();
+        for (Object[] row : rows) {
+            states.put((Long) row[0], new BillState((Bill.BillStatus) row[1], (Long) row[2]));
+        }
+        return states;
+    }
+    
+    private record BillState(Bill.BillStatus status, Long version) {
+        boolean movedTo(BillState after, Bill.BillStatus target) {
+            return after != null && after.status() == target && after.version() == version + 1;
+        }
+    }
+    
+    private Map<Long, Bill.BillStatus> findStatuses(List<Long> ids) {
+        Map<Long, Bill.BillStatus> statuses = new HashMap<>();
+        for (Object[] row : billRepository.findStatusesByIdIn(ids)) {
+            statuses.put((Long) row[0], (Bill.BillStatus) row[1]);
+        }
+        return statuses;
+    }
+    
+    @Transactional
     public Bill calculateBillAmounts(Long id) {
-        return billRepository.findById(id)
-                .map(bill -> {
-                    BigDecimal totalAmount = bill.getBillItems().stream()
-                            .map(billItem -> billItem.getUnitPrice().multiply(BigDecimal.valueOf(billItem.getQuantity())))
-                            .reduce(BigDecimal.ZERO, BigDecimal::add);
-                    
-                    bill.setTotalAmount(totalAmount);
-                    
-                    // Calculate final amount (total + tax - discount)
-                    BigDecimal finalAmount = totalAmount
-                            .add(bill.getTaxAmount() != null ? bill.getTaxAmount() : BigDecimal.ZERO)
-                            .subtract(bill.getDiscountAmount() != null ? bill.getDiscountAmount() : BigDecimal.ZERO);
-                    
-                    bill.setFinalAmount(finalAmount);
-                    
-                    return billRepository.save(bill);
-                })
+        // Single aggregate UPDATE: total = sum of lines, final = total + tax - discount
+        if (billRepository.recalculateAmounts(id) == 0) {
+            throw new RuntimeException("Bill not found with id: " + id);
+        }
+        Bill bill = billRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Bill not found with id: " + id));
+        publishBillEvent(EventType.BILL_UPDATED, bill);
+        return bill;
     }
     
+    @Transactional
     public void deleteBill(Long id) {
-        if (billRepository.existsById(id)) {
-            billRepository.deleteById(id);
-        } else {
+        if (!billRepository.existsById(id)) {
             throw new RuntimeException("Bill not found with id: " + id);
         }
+        // Delete the lines with one statement instead of loading them for the cascade
+        billItemRepository.bulkDeleteByBillId(id);
+        billRepository.bulkDeleteById(id);
+        outboxService.publish(EventType.BILL_DELETED, id, OutboxService.payload("billId", id));
     }
     
+    @Transactional(readOnly = true)
     public long countBills() {
         return billRepository.count();
     }
     
+    @Transactional(readOnly = true)
     public Long countByStatus(Bill.BillStatus status) {
         return billRepository.countByStatus(status);
     }
     
+    @Transactional(readOnly = true)
     public BigDecimal getTotalRevenueByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
         BigDecimal revenue = billRepository.getTotalRevenueByDateRange(startDate, endDate);
         return revenue != null ? revenue : BigDecimal.ZERO;
     }
     
+    // Hot bills only unless includeArchived is set; old settled bills live in bills_archive
+    @Transactional(readOnly = true)
+    public BigDecimal getTotalRevenueByDateRange(LocalDateTime startDate, LocalDateTime endDate, boolean includeArchived) {
+        BigDecimal revenue = getTotalRevenueByDateRange(startDate, endDate);
+        if (includeArchived) {
+            BigDecimal archived = archivedBillRepository.getTotalRevenueByDateRange(startDate, endDate);
+            revenue = revenue.add(archived != null ? archived : BigDecimal.ZERO);
+        }
+        return revenue;
+    }
+    
+    @Transactional(readOnly = true)
     public List<Bill> findDraftBills() {
         return billRepository.findByStatus(Bill.BillStatus.DRAFT);
     }
     
+    @Transactional(readOnly = true)
     public List<Bill> findPaidBills() {
         return billRepository.findByStatus(Bill.BillStatus.PAID);
     }
     
+    @Transactional(readOnly = true)
     public List<Bill> findConfirmedBills() {
         return billRepository.findByStatus(Bill.BillStatus.CONFIRMED);
     }
     
+    @Transactional(readOnly = true)
     public Bill getBillWithItems(Long id) {
         return billRepository.findById(id)
                 .map(bill -> {
@@ -168,13 +359,24 @@ public class BillService {
                 .orElseThrow(() -> new RuntimeException("Bill not found with id: " + id));
     }
     
+    @Transactional(readOnly = true)
     public boolean billExists(Long id) {
         return billRepository.existsById(id);
     }
     
+    private void publishBillEvent(EventType eventType, Bill bill) {
+        outboxService.publish(eventType, bill.getId(), OutboxService.payload(
+                "billId", bill.getId(),
+                "billNumber", bill.getBillNumber(),
+                "customerId", bill.getCustomer() != null ? bill.getCustomer().getId() : null,
+                "status", bill.getStatus(),
+                "finalAmount", bill.getFinalAmount()));
+    }
+    
     private String generateBillNumber() {
         String prefix = "BILL-";
-        long count = billRepository.count() + 1;
+        // Archived bills keep their numbers, so they still count towards the sequence
+        long count = billRepository.count() + archivedBillRepository.count() + 1;
         return prefix + String.format("%06d", count);
     }
 }
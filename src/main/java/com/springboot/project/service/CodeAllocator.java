@@ -0,0 +1,109 @@
+package com.springboot.project.service;
+
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import com.springboot.project.repository.CodeBlockRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+// Unique customer account numbers and item codes without a database round trip per code.
+// Each node reserves a block of numbers with one atomic update of code_blocks and hands
+// them out from memory; the next block is reserved in the background before this one runs
+// out. Numbers are unique across nodes and increase per node; a restart leaves a gap.
+@Slf4j
+@Service
+public class CodeAllocator {
+
+    private static final Pattern GENERATED_ITEM_CODE = Pattern.compile("ITM-\\d{6,}");
+
+    private final CodeBlockRepository codeBlockRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService prefetcher = Executors.newSingleThreadExecutor();
+    private final int blockSize;
+
+    private final Sequence customers = new Sequence("customer");
+    private final Sequence items = new Sequence("item");
+
+    public CodeAllocator(CodeBlockRepository codeBlockRepository,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${app.codes.block-size:100}") int blockSize) {
+        this.codeBlockRepository = codeBlockRepository;
+        // Reservations commit on their own, whatever happens to the caller's transaction
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = Math.max(1, blockSize);
+    }
+
+    // Like ACC-000123
+    public String nextAccountNumber() {
+        return String.format("ACC-%06d", customers.next());
+    }
+
+    // Like ITM-000045
+    public String nextItemCode() {
+        return String.format("ITM-%06d", items.next());
+    }
+
+    // Codes of this shape are reserved for nextItemCode, which hands them out without checking
+    // whether they exist; a client that picked one would collide with a later allocation
+    public boolean isGeneratedItemCode(String code) {
+        return code != null && GENERATED_ITEM_CODE.matcher(code.trim()).matches();
+    }
+
+    // Returns the first number of a freshly reserved block
+    private long reserve(String name) {
+        Long end = transactionTemplate.execute(status -> {
+            if (codeBlockRepository.advance(name, blockSize) != 1) {
+                throw new IllegalStateException("No code sequence named " + name);
+            }
+            return codeBlockRepository.findNextValue(name);
+        });
+        return end - blockSize;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        prefetcher.shutdown();
+    }
+
+    private final class Sequence {
+        private final String name;
+        private long next;
+        private long end;
+        private CompletableFuture<Long> prefetch;
+
+        private Sequence(String name) {
+            this.name = name;
+        }
+
+        private synchronized long next() {
+            if (next == end) {
+                long start = prefetch != null ? takePrefetched() : reserve(name);
+                next = start;
+                end = start + blockSize;
+                prefetch = null;
+            }
+            // Reserve the following block once a fifth of this one is left
+            if (prefetch == null && end - next <= Math.max(1, blockSize / 5)) {
+                prefetch = CompletableFuture.supplyAsync(() -> reserve(name), prefetcher);
+            }
+            return next++;
+        }
+
+        private long takePrefetched() {
+            try {
+                return prefetch.join();
+            } catch (Exception e) {
+                log.warn("Background reservation of {} codes failed, reserving now: {}", name, e.getMessage());
+                return reserve(name);
+            }
+        }
+    }
+}
@@ -7,7 +7,9 @@ import org.springframework.security.core.userdetails.UserDetails;
 import com.springboot.project.repository.UserRepository;
 import org.springframework.stereotype.Service;
 import com.springboot.project.entity.User;
+import org.springframework.beans.factory.annotation.Value;
 import lombok.RequiredArgsConstructor;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -15,6 +17,10 @@ public class CustomUserDetailsService implements UserDetailsService {
     
     private final UserRepository userRepository;
     
+    // Accounts that also get ROLE_ADMIN (actuator endpoints); anyone can sign up, so none by default
+    @Value("${app.security.admin-usernames:}")
+    private Set<String> adminUsernames;
+    
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         User user = userRepository.findByUsername(username)
@@ -22,7 +28,11 @@ public class CustomUserDetailsService implements UserDetailsService {
         
         UserBuilder builder = org.springframework.security.core.userdetails.User.withUsername(username);
         builder.password(user.getPassword());
-        builder.roles("USER"); // You can customize roles as needed
+        if (adminUsernames.contains(username)) {
+            builder.roles("USER", "ADMIN");
+        } else {
+            builder.roles("USER");
+        }
         
         return builder.build();
     }
@@ -1,12 +1,27 @@
 package com.springboot.project.service;
 
+import com.springboot.project.repository.BillItemRepository;
 import com.springboot.project.repository.CustomerRepository;
+import com.springboot.project.repository.BillRepository;
+import com.springboot.project.repository.ArchivedBillRepository;
+import com.springboot.project.repository.ArchivedBillItemRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.domain.Pageable;
+import com.springboot.project.dto.CustomerBillHistory;
+import com.springboot.project.dto.BillHistoryEntry;
+import com.springboot.project.dto.CustomerSummary;
+import org.springframework.data.domain.Limit;
+import com.springboot.project.entity.OutboxEvent.EventType;
 import com.springboot.project.entity.Customer;
 import org.springframework.stereotype.Service;
 import org.springframework.data.domain.Page;
 import lombok.RequiredArgsConstructor;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.stream.Stream;
 import java.util.Optional;
 
 @Service
@@ -14,91 +29,189 @@ import java.util.Optional;
 public class CustomerService {
     
     private final CustomerRepository customerRepository;
-    
+    private final BillRepository billRepository;
+    private final BillItemRepository billItemRepository;
+    private final ArchivedBillRepository archivedBillRepository;
+    private final ArchivedBillItemRepository archivedBillItemRepository;
+    private final OutboxService outboxService;
+    private final OptimisticRetry optimisticRetry;
+    
+    // Archive customers on delete instead of removing them and their bill history
+    @Value("${app.customers.soft-delete:false}")
+    private boolean softDelete;
+    
+    @Transactional
     public Customer saveCustomer(Customer customer) {
-        return customerRepository.save(customer);
+        return publishCustomerChanged(customerRepository.save(customer));
     }
     
+    @Transactional(readOnly = true)
     public List<Customer> findAllCustomers() {
-        return customerRepository.findAll();
+        return customerRepository.findByDeletedAtIsNull();
     }
     
+    @Transactional(readOnly = true)
     public Page<Customer> findAllCustomers(Pageable pageable) {
-        return customerRepository.findAll(pageable);
+        return customerRepository.findByDeletedAtIsNull(pageable);
     }
     
+    @Transactional(readOnly = true)
     public Page<Customer> searchCustomers(String keyword, Pageable pageable) {
         return customerRepository.searchByKeyword(keyword, pageable);
     }
     
+    @Transactional(readOnly = true)
     public Optional<Customer> findCustomerById(Long id) {
         return customerRepository.findById(id);
     }
     
+    @Transactional(readOnly = true)
     public Optional<Customer> findByAccountNumber(String accountNumber) {
         return customerRepository.findByAccountNumber(accountNumber);
     }
     
+    @Transactional(readOnly = true)
     public boolean existsByAccountNumber(String accountNumber) {
         return customerRepository.existsByAccountNumber(accountNumber);
     }
     
+    @Transactional(readOnly = true)
     public List<Customer> searchByName(String name) {
         return customerRepository.findByNameContainingIgnoreCase(name);
     }
     
+    @Transactional(readOnly = true)
     public List<Customer> searchByKeyword(String keyword) {
         return customerRepository.searchByKeyword(keyword);
     }
     
+    // Fails with OptimisticLockingFailureException if updatedCustomer carries an outdated version
+    @Transactional
     public Customer updateCustomer(Long id, Customer updatedCustomer) {
         return customerRepository.findById(id)
                 .map(customer -> {
+                    OptimisticRetry.checkVersion("Customer", id, updatedCustomer.getVersion(), customer.getVersion());
                     customer.setName(updatedCustomer.getName());
                     customer.setAddress(updatedCustomer.getAddress());
                     customer.setTelephone(updatedCustomer.getTelephone());
                     customer.setEmail(updatedCustomer.getEmail());
                     // Note: accountNumber is typically not updated as it's unique identifier
-                    return customerRepository.save(customer);
+                    return publishCustomerChanged(customerRepository.save(customer));
                 })
                 .orElseThrow(() -> new RuntimeException("Customer not found with id: " + id));
     }
     
+    // Set-to-value updates: on a version conflict they are applied again to a fresh read
     public Customer updateCustomerContact(Long id, String telephone, String email) {
-        return customerRepository.findById(id)
+        return optimisticRetry.execute(() -> customerRepository.findById(id)
                 .map(customer -> {
                     customer.setTelephone(telephone);
                     customer.setEmail(email);
-                    return customerRepository.save(customer);
+                    return publishCustomerChanged(customerRepository.save(customer));
                 })
-                .orElseThrow(() -> new RuntimeException("Customer not found with id: " + id));
+                .orElseThrow(() -> new RuntimeException("Customer not found with id: " + id)));
     }
     
     public Customer updateCustomerAddress(Long id, String address) {
-        return customerRepository.findById(id)
+        return optimisticRetry.execute(() -> customerRepository.findById(id)
                 .map(customer -> {
                     customer.setAddress(address);
-                    return customerRepository.save(customer);
+                    return publishCustomerChanged(customerRepository.save(customer));
                 })
-                .orElseThrow(() -> new RuntimeException("Customer not found with id: " + id));
+                .orElseThrow(() -> new RuntimeException("Customer not found with id: " + id)));
     }
     
+    @Transactional
     public void deleteCustomer(Long id) {
-        if (customerRepository.existsById(id)) {
-            customerRepository.deleteById(id);
-        } else {
+        if (!customerRepository.existsById(id)) {
             throw new RuntimeException("Customer not found with id: " + id);
         }
+        if (softDelete) {
+            customerRepository.archiveById(id, LocalDateTime.now());
+            publishCustomerDeleted(id, true);
+            return;
+        }
+        // Set-based deletes instead of loading and cascading every bill and line; only the
+        // bill ids are read first, so each deleted bill, live or archived, gets its BILL_DELETED event
+        List<Long> billIds = new ArrayList<>(billRepository.findIdsByCustomerId(id));
+        billIds.addAll(archivedBillRepository.findIdsByCustomerId(id));
+        billItemRepository.bulkDeleteByCustomerId(id);
+        billRepository.bulkDeleteByCustomerId(id);
+        archivedBillItemRepository.bulkDeleteByCustomerId(id);
+        archivedBillRepository.bulkDeleteByCustomerId(id);
+        customerRepository.bulkDeleteById(id);
+        for (Long billId : billIds) {
+            outboxService.publish(EventType.BILL_DELETED, billId, OutboxService.payload("billId", billId));
+        }
+        publishCustomerDeleted(id, false);
+    }
+    
+    @Transactional
+    public void archiveCustomer(Long id) {
+        if (customerRepository.archiveById(id, LocalDateTime.now()) == 0) {
+            throw new RuntimeException("Customer not found with id: " + id);
+        }
+        publishCustomerDeleted(id, true);
     }
     
+    @Transactional(readOnly = true)
     public long countCustomers() {
-        return customerRepository.count();
+        return customerRepository.countByDeletedAtIsNull();
     }
     
+    @Transactional(readOnly = true)
     public boolean customerExists(Long id) {
         return customerRepository.existsById(id);
     }
     
+    @Transactional(readOnly = true)
+    public CustomerSummary getCustomerSummary(Long id) {
+        return billRepository.getCustomerSummary(id).plus(archivedBillRepository.getCustomerSummary(id));
+    }
+    
+    // One page of bill history across live and archived bills; the cursor is "<createdAt>_<id>"
+    // of the last bill on the previous page. Archived bills keep their ids, so both tables
+    // share one (createdAt, id) order and each page merges the next size + 1 rows of both.
+    @Transactional(readOnly = true)
+    public CustomerBillHistory getBillHistory(Long id, String cursor, int size) {
+        size = Math.max(1, Math.min(size, 100));
+        Limit limit = Limit.of(size + 1); // one extra row tells whether another page exists
+        List<BillHistoryEntry> bills;
+        if (cursor == null || cursor.isBlank()) {
+            bills = merge(billRepository.findBillHistory(id, limit),
+                    archivedBillRepository.findBillHistory(id, limit), size + 1);
+        } else {
+            int separator = cursor.lastIndexOf('_');
+            if (separator < 0) {
+                throw new RuntimeException("Invalid cursor: " + cursor);
+            }
+            LocalDateTime createdAt = LocalDateTime.parse(cursor.substring(0, separator));
+            Long lastId = Long.valueOf(cursor.substring(separator + 1));
+            bills = merge(billRepository.findBillHistoryBefore(id, createdAt, lastId, limit),
+                    archivedBillRepository.findBillHistoryBefore(id, createdAt, lastId, limit), size + 1);
+        }
+        
+        String nextCursor = null;
+        if (bills.size() > size) {
+            bills = bills.subList(0, size);
+            BillHistoryEntry last = bills.get(size - 1);
+            nextCursor = last.getCreatedAt() + "_" + last.getId();
+        }
+        return new CustomerBillHistory(bills, nextCursor);
+    }
+    
+    private static List<BillHistoryEntry> merge(List<BillHistoryEntry> live, List<BillHistoryEntry> archived, int limit) {
+        if (archived.isEmpty()) {
+            return live;
+        }
+        return Stream.concat(live.stream(), archived.stream())
+                .sorted(Comparator.comparing(BillHistoryEntry::getCreatedAt)
+                        .thenComparing(BillHistoryEntry::getId).reversed())
+                .limit(limit)
+                .toList();
+    }
+    
+    @Transactional(readOnly = true)
     public Customer getCustomerWithBills(Long id) {
         return customerRepository.findById(id)
                 .map(customer -> {
@@ -108,4 +221,15 @@ public class CustomerService {
                 })
                 .orElseThrow(() -> new RuntimeException("Customer not found with id: " + id));
     }
+    
+    private Customer publishCustomerChanged(Customer customer) {
+        outboxService.publish(EventType.CUSTOMER_CHANGED, customer.getId(), OutboxService.payload(
+                "customerId", customer.getId(),
+                "name", customer.getName()));
+        return customer;
+    }
+    
+    private void publishCustomerDeleted(Long id, boolean archived) {
+        outboxService.publish(EventType.CUSTOMER_DELETED, id, OutboxService.payload("customerId", id, "archived", archived));
+    }
 }
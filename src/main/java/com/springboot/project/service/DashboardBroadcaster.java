@@ -0,0 +1,181 @@
+package com.springboot.project.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.springframework.beans.factory.annotation.Value;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import com.springboot.project.dto.DashboardActivity;
+import com.springboot.project.dto.DashboardSnapshot;
+import org.springframework.stereotype.Service;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Server-Sent Events fan-out for the live dashboard. Every message is serialized once and
+// queued per connection; a connection that falls more than max-queued messages behind has
+// its queue dropped and gets the latest full snapshot instead once it catches up.
+@Slf4j
+@Service
+public class DashboardBroadcaster {
+
+    private final ObjectMapper objectMapper;
+    private final ExecutorService senders;
+    private final List<Connection> connections = new CopyOnWriteArrayList<>();
+    private final Counter resyncs;
+
+    private volatile Set<DataWithMediaType> snapshotEvent;
+
+    @Value("${app.dashboard.max-connections:500}")
+    private int maxConnections;
+
+    @Value("${app.dashboard.max-queued:32}")
+    private int maxQueued;
+
+    @Value("${app.dashboard.emitter-timeout-ms:1800000}")
+    private long emitterTimeout;
+
+    public DashboardBroadcaster(ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.dashboard.senders:4}") int senderCount) {
+        this.objectMapper = objectMapper;
+        this.senders = Executors.newFixedThreadPool(senderCount);
+        Gauge.builder("dashboard.connections", connections, List::size)
+                .description("Open live dashboard connections")
+                .register(meterRegistry);
+        this.resyncs = meterRegistry.counter("dashboard.resyncs");
+    }
+
+    // Returns null when the connection limit is reached
+    public SseEmitter connect(DashboardSnapshot snapshot) {
+        if (connections.size() >= maxConnections) {
+            return null;
+        }
+        Set<DataWithMediaType> initial = snapshotEvent;
+        if (initial == null) {
+            initial = event("snapshot", snapshot);
+        }
+
+        SseEmitter emitter = new SseEmitter(emitterTimeout);
+        Connection connection = new Connection(emitter);
+        emitter.onCompletion(() -> connections.remove(connection));
+        emitter.onTimeout(() -> connections.remove(connection));
+        emitter.onError(e -> connections.remove(connection));
+        connections.add(connection);
+        offer(connection, initial);
+        return emitter;
+    }
+
+    // Called by DashboardService at most once per push interval
+    public void publish(DashboardSnapshot snapshot, Map<String, Object> changes, List<DashboardActivity> activity) {
+        snapshotEvent = event("snapshot", snapshot);
+        if (connections.isEmpty()) {
+            return;
+        }
+        if (!changes.isEmpty()) {
+            Set<DataWithMediaType> countersEvent = event("counters", changes);
+            connections.forEach(connection -> offer(connection, countersEvent));
+        }
+        if (!activity.isEmpty()) {
+            Set<DataWithMediaType> activityEvent = event("activity", activity);
+            connections.forEach(connection -> offer(connection, activityEvent));
+        }
+    }
+
+    // Keeps idle connections (and proxies in between) from timing out; skipped for busy ones
+    @Scheduled(fixedDelayString = "${app.dashboard.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        Set<DataWithMediaType> heartbeat = SseEmitter.event().comment("heartbeat").build();
+        for (Connection connection : connections) {
+            synchronized (connection) {
+                if (!connection.queue.isEmpty() || connection.draining) {
+                    continue;
+                }
+            }
+            offer(connection, heartbeat);
+        }
+    }
+
+    private void offer(Connection connection, Set<DataWithMediaType> event) {
+        synchronized (connection) {
+            if (connection.queue.size() >= maxQueued) {
+                connection.queue.clear();
+                connection.resync = true;
+                resyncs.increment();
+            } else {
+                connection.queue.add(event);
+            }
+            if (connection.draining) {
+                return;
+            }
+            connection.draining = true;
+        }
+        senders.execute(() -> drain(connection));
+    }
+
+    private void drain(Connection connection) {
+        while (true) {
+            Set<DataWithMediaType> next;
+            synchronized (connection) {
+                if (connection.resync) {
+                    connection.resync = false;
+                    next = snapshotEvent;
+                } else {
+                    next = connection.queue.poll();
+                }
+                if (next == null) {
+                    connection.draining = false;
+                    return;
+                }
+            }
+            try {
+                connection.emitter.send(next);
+            } catch (Exception e) {
+                log.debug("Dropping dashboard connection: {}", e.getMessage());
+                connections.remove(connection);
+                connection.emitter.completeWithError(e);
+                synchronized (connection) {
+                    connection.queue.clear();
+                    connection.draining = false;
+                }
+                return;
+            }
+        }
+    }
+
+    private Set<DataWithMediaType> event(String name, Object data) {
+        try {
+            return SseEmitter.event().name(name).data(objectMapper.writeValueAsString(data)).build();
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize dashboard " + name + " event: " + e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+        connections.forEach(connection -> connection.emitter.complete());
+    }
+
+    private static final class Connection {
+        private final SseEmitter emitter;
+        private final Deque<Set<DataWithMediaType>> queue = new ArrayDeque<>();
+        private boolean resync;
+        private boolean draining;
+
+        private Connection(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.springboot.project.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.scheduling.annotation.Scheduled;
+import com.springboot.project.dto.DashboardActivity;
+import com.springboot.project.dto.DashboardSnapshot;
+import com.springboot.project.entity.OutboxEvent;
+import org.springframework.stereotype.Service;
+import com.springboot.project.entity.Bill;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.LinkedHashMap;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.List;
+import java.util.Map;
+
+// Shared dashboard state. Outbox events only mark the snapshot dirty; it is recomputed at
+// most once per push interval, however many dashboards are open, and the changes since
+// the previous snapshot are handed to DashboardBroadcaster.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DashboardService implements OutboxEventHandler {
+
+    private static final int MAX_ACTIVITY_PER_PUSH = 50;
+
+    private final CustomerService customerService;
+    private final ItemService itemService;
+    private final BillService billService;
+    private final DashboardBroadcaster broadcaster;
+    private final ObjectMapper objectMapper;
+    private final SingleFlight singleFlight;
+
+    private final AtomicBoolean dirty = new AtomicBoolean(true);
+    private final ConcurrentLinkedQueue<DashboardActivity> activity = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingActivity = new AtomicInteger();
+    private volatile DashboardSnapshot snapshot;
+
+    @Override
+    public boolean supports(OutboxEvent.EventType eventType) {
+        return true;
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        dirty.set(true);
+        // Only the newest entries matter for a feed; drop the rest if nobody has pushed them yet
+        if (pendingActivity.incrementAndGet() > MAX_ACTIVITY_PER_PUSH) {
+            activity.poll();
+            pendingActivity.decrementAndGet();
+        }
+        activity.add(new DashboardActivity(event.getEventType().name(), event.getAggregateId(),
+                describe(event), event.getCreatedAt()));
+    }
+
+    public DashboardSnapshot getSnapshot() {
+        DashboardSnapshot current = snapshot;
+        // Before the first push, concurrent page loads share one computation
+        return current != null ? current : singleFlight.execute("dashboard:snapshot", Duration.ZERO, this::refresh);
+    }
+
+    @Scheduled(fixedDelayString = "${app.dashboard.push-interval-ms:1000}")
+    public void push() {
+        List<DashboardActivity> recent = new ArrayList<>();
+        DashboardActivity next;
+        while ((next = activity.poll()) != null) {
+            pendingActivity.decrementAndGet();
+            recent.add(next);
+        }
+
+        DashboardSnapshot previous = snapshot;
+        if (!dirty.get() && previous != null && recent.isEmpty()) {
+            return;
+        }
+        DashboardSnapshot current = dirty.get() || previous == null ? refresh() : previous;
+        broadcaster.publish(current, changes(previous, current), recent);
+    }
+
+    private synchronized DashboardSnapshot refresh() {
+        dirty.set(false);
+        DashboardSnapshot current = new DashboardSnapshot(
+                customerService.countCustomers(),
+                itemService.countItems(),
+                itemService.countActiveItems(),
+                itemService.countItemsBelowReorderThreshold(),
+                billService.countBills(),
+                billService.countByStatus(Bill.BillStatus.PAID),
+                billService.countByStatus(Bill.BillStatus.DRAFT),
+                itemService.findItemsBelowReorderThreshold());
+        snapshot = current;
+        return current;
+    }
+
+    // Fields that differ from the previous snapshot; everything on the first push
+    private Map<String, Object> changes(DashboardSnapshot previous, DashboardSnapshot current) {
+        Map<String, Object> currentFields = objectMapper.convertValue(current, Map.class);
+        if (previous == null) {
+            return currentFields;
+        }
+        Map<String, Object> previousFields = objectMapper.convertValue(previous, Map.class);
+        Map<String, Object> changed = new LinkedHashMap<>();
+        currentFields.forEach((field, value) -> {
+            if (!Objects.equals(value, previousFields.get(field))) {
+                changed.put(field, value);
+            }
+        });
+        return changed;
+    }
+
+    private String describe(OutboxEvent event) {
+        try {
+            JsonNode payload = objectMapper.readTree(event.getPayload() != null ? event.getPayload() : "{}");
+            return switch (event.getEventType()) {
+                case BILL_CREATED -> "New bill " + payload.path("billNumber").asText("#" + event.getAggregateId());
+                case BILL_UPDATED -> "Bill " + payload.path("billNumber").asText("#" + event.getAggregateId()) + " updated";
+                case BILL_STATUS_CHANGED -> Bill.BillStatus.PAID.name().equals(payload.path("to").asText())
+                        ? "Bill #" + event.getAggregateId() + " paid"
+                        : "Bill #" + event.getAggregateId() + " is now " + payload.path("to").asText();
+                case BILL_DELETED -> "Bill #" + event.getAggregateId() + " deleted";
+                case ITEM_CHANGED -> "Item #" + event.getAggregateId() + " stock " + payload.path("stockQuantity").asText();
+                case ITEM_LOW_STOCK -> "Item #" + event.getAggregateId() + " is low on stock ("
+                        + payload.path("stockQuantity").asText() + " left)";
+                case ITEM_RESTOCKED -> "Item #" + event.getAggregateId() + " restocked";
+                case CUSTOMER_CHANGED -> "Customer " + payload.path("name").asText("#" + event.getAggregateId()) + " saved";
+                case CUSTOMER_DELETED -> "Customer #" + event.getAggregateId()
+                        + (payload.path("archived").asBoolean() ? " archived" : " deleted");
+            };
+        } catch (Exception e) {
+            log.debug("Could not describe outbox event {}: {}", event.getId(), e.getMessage());
+            return event.getEventType().name();
+        }
+    }
+}
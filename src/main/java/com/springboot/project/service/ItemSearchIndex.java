@@ -0,0 +1,230 @@
+package com.springboot.project.service;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import com.springboot.project.repository.ItemRepository;
+import org.springframework.context.event.EventListener;
+import com.springboot.project.dto.ItemSuggestion;
+import org.springframework.stereotype.Service;
+import com.springboot.project.entity.Item;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.math.BigDecimal;
+import java.util.NavigableMap;
+import java.util.LinkedHashSet;
+import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// In-memory autocomplete over item names and codes. Seeded by one query at startup and kept
+// current by ItemService, like LowStockWatcher. Matches are ranked: name prefix, code prefix,
+// prefix of a word in the name, then anywhere in name or code (through a trigram index).
+// Within a rank, results come in name order; only ACTIVE items are returned.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ItemSearchIndex {
+
+    private static final char NAME = 'n';
+    private static final char CODE = 'c';
+    private static final char WORD = 'w';
+    private static final char SEPARATOR = '\u0000';
+
+    private final ItemRepository itemRepository;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    // Sorted keys like "n" + term + "\0" + id; a prefix query is a range scan
+    private final NavigableMap<String, Long> terms = new ConcurrentSkipListMap<>();
+
+    private final Map<String, Set<Long>> trigrams = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void loadItems() {
+        entries.clear();
+        terms.clear();
+        trigrams.clear();
+        for (Object[] row : itemRepository.findSearchEntries()) {
+            add(Entry.of(new ItemSuggestion((Long) row[0], (String) row[1], (String) row[2],
+                    (BigDecimal) row[3], (Integer) row[4]), (Item.ItemStatus) row[5]));
+        }
+        log.info("{} items in the search index", entries.size());
+    }
+
+    // Called inside the item's write transaction; the index changes once it commits
+    public void itemChanged(Item item) {
+        Entry entry = Entry.of(new ItemSuggestion(item.getId(), item.getItemCode(), item.getName(),
+                item.getPrice(), item.getStockQuantity()), item.getStatus());
+        afterCommit(() -> {
+            synchronized (this) {
+                remove(entry.item().getId());
+                add(entry);
+            }
+        });
+    }
+
+    public void itemDeleted(Long id) {
+        afterCommit(() -> {
+            synchronized (this) {
+                remove(id);
+            }
+        });
+    }
+
+    public List<ItemSuggestion> search(String query, int limit) {
+        String q = normalize(query);
+        if (q.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Set<Long> found = new LinkedHashSet<>();
+        for (char kind : new char[] {NAME, CODE, WORD}) {
+            String from = kind + q;
+            for (Long id : terms.subMap(from, true, from + Character.MAX_VALUE, false).values()) {
+                if (found.size() >= limit) {
+                    break;
+                }
+                if (isActive(id)) {
+                    found.add(id);
+                }
+            }
+        }
+        if (found.size() < limit && q.length() >= 3) {
+            addInfixMatches(q, limit, found);
+        }
+        
+        List<ItemSuggestion> results = new ArrayList<>(found.size());
+        for (Long id : found) {
+            Entry entry = entries.get(id);
+            if (entry != null) {
+                results.add(entry.item());
+            }
+        }
+        return results;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // Candidates share every trigram of the query; the smallest posting list is checked against
+    // the others and against the text itself, which also rules out trigrams in the wrong order
+    private void addInfixMatches(String q, int limit, Set<Long> found) {
+        List<Set<Long>> postings = new ArrayList<>();
+        for (int i = 0; i + 3 <= q.length(); i++) {
+            Set<Long> posting = trigrams.get(q.substring(i, i + 3));
+            if (posting == null) {
+                return;
+            }
+            postings.add(posting);
+        }
+        postings.sort(Comparator.comparingInt(Set::size));
+        
+        List<Entry> matches = new ArrayList<>();
+        for (Long id : postings.get(0)) {
+            Entry entry = entries.get(id);
+            if (entry == null || entry.status() != Item.ItemStatus.ACTIVE || found.contains(id)) {
+                continue;
+            }
+            boolean inAll = true;
+            for (int i = 1; i < postings.size() && inAll; i++) {
+                inAll = postings.get(i).contains(id);
+            }
+            if (inAll && entry.text().contains(q)) {
+                matches.add(entry);
+            }
+        }
+        matches.sort(Comparator.comparing(Entry::name));
+        for (Entry entry : matches) {
+            if (found.size() >= limit) {
+                break;
+            }
+            found.add(entry.item().getId());
+        }
+    }
+
+    private boolean isActive(Long id) {
+        Entry entry = entries.get(id);
+        return entry != null && entry.status() == Item.ItemStatus.ACTIVE;
+    }
+
+    private void add(Entry entry) {
+        Long id = entry.item().getId();
+        entries.put(id, entry);
+        for (String key : keys(entry)) {
+            terms.put(key, id);
+        }
+        String text = entry.text();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            trigrams.computeIfAbsent(text.substring(i, i + 3), k -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+
+    private void remove(Long id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        for (String key : keys(entry)) {
+            terms.remove(key);
+        }
+        String text = entry.text();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            String trigram = text.substring(i, i + 3);
+            Set<Long> posting = trigrams.get(trigram);
+            if (posting != null) {
+                posting.remove(id);
+                if (posting.isEmpty()) {
+                    trigrams.remove(trigram);
+                }
+            }
+        }
+    }
+
+    private static List<String> keys(Entry entry) {
+        String suffix = SEPARATOR + String.valueOf(entry.item().getId());
+        String name = entry.name();
+        List<String> keys = new ArrayList<>();
+        keys.add(NAME + name + suffix);
+        if (entry.item().getItemCode() != null) {
+            keys.add(CODE + normalize(entry.item().getItemCode()) + suffix);
+        }
+        // Every later word of the name, so "app" finds "Green Apple"
+        for (int i = 1; i < name.length(); i++) {
+            if (name.charAt(i - 1) == ' ' && name.charAt(i) != ' ') {
+                keys.add(WORD + name.substring(i) + suffix);
+            }
+        }
+        return keys;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // name and text (name and code) are normalized once, when the entry is built
+    private record Entry(ItemSuggestion item, Item.ItemStatus status, String name, String text) {
+        static Entry of(ItemSuggestion item, Item.ItemStatus status) {
+            String name = normalize(item.getName());
+            return new Entry(item, status, name, name + " " + normalize(item.getItemCode()));
+        }
+    }
+}
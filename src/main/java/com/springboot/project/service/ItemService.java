@@ -1,141 +1,430 @@
 package com.springboot.project.service;
 
 import com.springboot.project.repository.ItemRepository;
+import org.springframework.transaction.annotation.Transactional;
+import com.springboot.project.entity.OutboxEvent.EventType;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.data.domain.Page;
+import com.springboot.project.dto.ItemBulkAdjustmentResult.Outcome;
+import com.springboot.project.dto.ItemBulkAdjustmentRequest;
+import com.springboot.project.dto.ItemBulkAdjustmentResult;
+import com.springboot.project.dto.ItemSuggestion;
+import com.springboot.project.dto.LowStockItem;
 import com.springboot.project.entity.Item;
 import lombok.RequiredArgsConstructor;
 import java.math.BigDecimal;
 import java.util.Optional;
+import java.util.Collection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.List;
 
 @Service
 @RequiredArgsConstructor
 public class ItemService {
     
+    private static final int ADJUSTMENT_BATCH_SIZE = 500;
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+    
     private final ItemRepository itemRepository;
+    private final OutboxService outboxService;
+    private final LowStockWatcher lowStockWatcher;
+    private final ItemSearchIndex itemSearchIndex;
+    private final OptimisticRetry optimisticRetry;
+    private final StockLedgerService stockLedgerService;
     
+    // A new item's stock enters the ledger as its opening balance. An edit that changes the
+    // stock sets it to the new value: the difference is taken from the ledger, because the
+    // column the form was filled from may not include the latest movements yet. The previous
+    // stock is the stored one: a managed Item the caller already changed is not flushed first.
+    @Transactional
     public Item saveItem(Item item) {
-        return itemRepository.save(item);
+        Integer previous = item.getId() != null ? itemRepository.findStockQuantityById(item.getId()) : null;
+        int ledgerStock = previous != null ? stockLedgerService.currentStock(item.getId()) : 0;
+        Item saved = itemRepository.save(item);
+        if (previous == null) {
+            stockLedgerService.recordAdjustment(saved.getId(), stockOf(saved), "Opening stock");
+        } else if (stockOf(saved) != previous) {
+            stockLedgerService.recordAdjustment(saved.getId(), stockOf(saved) - ledgerStock, "Item edited");
+        }
+        return publishItemChanged(saved);
     }
     
+    @Transactional(readOnly = true)
     public List<Item> findAllItems() {
         return itemRepository.findAll();
     }
     
+    @Transactional(readOnly = true)
     public Page<Item> findAllItems(Pageable pageable) {
         return itemRepository.findAll(pageable);
     }
     
+    @Transactional(readOnly = true)
     public Page<Item> searchItems(String keyword, Pageable pageable) {
         return itemRepository.searchByKeyword(keyword, pageable);
     }
     
+    @Transactional(readOnly = true)
     public Optional<Item> findItemById(Long id) {
         return itemRepository.findById(id);
     }
     
+    // One query for all the lines of a bill
+    @Transactional(readOnly = true)
+    public Map<Long, Item> findItemsByIds(Collection<Long> ids) {
+        Map<Long, Item> items = new HashMap<>();
+        for (Item item : itemRepository.findAllById(ids)) {
+            items.put(item.getId(), item);
+        }
+        return items;
+    }
+    
+    @Transactional(readOnly = true)
     public Optional<Item> findByItemCode(String itemCode) {
         return itemRepository.findByItemCode(itemCode);
     }
     
+    @Transactional(readOnly = true)
     public boolean existsByItemCode(String itemCode) {
         return itemRepository.existsByItemCode(itemCode);
     }
     
+    @Transactional(readOnly = true)
     public List<Item> findByStatus(Item.ItemStatus status) {
         return itemRepository.findByStatus(status);
     }
     
+    @Transactional(readOnly = true)
     public List<Item> findActiveItems() {
         return itemRepository.findByStatus(Item.ItemStatus.ACTIVE);
     }
     
+    @Transactional(readOnly = true)
     public List<Item> searchByName(String name) {
         return itemRepository.findByNameContainingIgnoreCase(name);
     }
     
-    public List<Item> searchByKeyword(String keyword) {
-        return itemRepository.searchByKeyword(keyword);
+    // Autocomplete from memory, see ItemSearchIndex
+    public List<ItemSuggestion> suggestItems(String query, int limit) {
+        return itemSearchIndex.search(query, limit);
     }
     
+    @Transactional(readOnly = true)
     public List<Item> findLowStockItems(Integer threshold) {
         return itemRepository.findLowStockItems(threshold);
     }
     
+    // Fails with OptimisticLockingFailureException if updatedItem carries an outdated version
+    @Transactional
     public Item updateItem(Long id, Item updatedItem) {
         return itemRepository.findById(id)
                 .map(item -> {
+                    OptimisticRetry.checkVersion("Item", id, updatedItem.getVersion(), item.getVersion());
+                    int previousStock = stockOf(item);
+                    item.setItemCode(updatedItem.getItemCode());
                     item.setName(updatedItem.getName());
                     item.setDescription(updatedItem.getDescription());
                     item.setPrice(updatedItem.getPrice());
                     item.setStockQuantity(updatedItem.getStockQuantity());
+                    item.setReorderThreshold(updatedItem.getReorderThreshold());
                     item.setStatus(updatedItem.getStatus());
-                    return itemRepository.save(item);
+                    // An unchanged field leaves the ledger alone; a changed one sets the stock (see saveItem)
+                    if (stockOf(item) != previousStock) {
+                        stockLedgerService.recordAdjustment(id, stockOf(item) - stockLedgerService.currentStock(id),
+                                "Item edited");
+                    }
+                    return publishItemChanged(itemRepository.save(item));
                 })
                 .orElseThrow(() -> new RuntimeException("Item not found with id: " + id));
     }
     
+    // Set-to-value updates: on a version conflict they are applied again to a fresh read
     public Item updateStock(Long id, Integer newQuantity) {
-        return itemRepository.findById(id)
+        return optimisticRetry.execute(() -> itemRepository.findById(id)
                 .map(item -> {
-                    item.setStockQuantity(newQuantity);
-                    // Auto-update status based on stock
-                    if (newQuantity <= 0) {
-                        item.setStatus(Item.ItemStatus.OUT_OF_STOCK);
-                    } else if (item.getStatus() == Item.ItemStatus.OUT_OF_STOCK) {
-                        item.setStatus(Item.ItemStatus.ACTIVE);
-                    }
-                    return itemRepository.save(item);
+                    stockLedgerService.recordAdjustment(id, newQuantity - stockLedgerService.currentStock(id), "Stock set");
+                    applyStock(item, newQuantity);
+                    return publishItemChanged(itemRepository.save(item));
                 })
-                .orElseThrow(() -> new RuntimeException("Item not found with id: " + id));
+                .orElseThrow(() -> new RuntimeException("Item not found with id: " + id)));
     }
     
     public Item updatePrice(Long id, BigDecimal newPrice) {
-        return itemRepository.findById(id)
+        return optimisticRetry.execute(() -> itemRepository.findById(id)
                 .map(item -> {
                     item.setPrice(newPrice);
-                    return itemRepository.save(item);
+                    return publishItemChanged(itemRepository.save(item));
                 })
-                .orElseThrow(() -> new RuntimeException("Item not found with id: " + id));
+                .orElseThrow(() -> new RuntimeException("Item not found with id: " + id)));
+    }
+    
+    // Repricing and stock-takes over many items: one UPDATE per batch of ids instead of a
+    // read and a full-row save per item. Adjusted rows are read back once per batch so the
+    // outbox and the low-stock set see the same changes as a single-item update.
+    @Transactional
+    public ItemBulkAdjustmentResult adjustItems(ItemBulkAdjustmentRequest request) {
+        boolean hasIds = request.getItemIds() != null && !request.getItemIds().isEmpty();
+        boolean hasFilter = request.getStatus() != null
+                || (request.getKeyword() != null && !request.getKeyword().isBlank());
+        if (request.getCounts() != null && !request.getCounts().isEmpty()) {
+            if (request.getPriceMode() != null || request.getStockMode() != null || hasIds || hasFilter) {
+                throw new RuntimeException("Stock-take counts select their own items and cannot be combined with other adjustments");
+            }
+            return countStock(request.getCounts());
+        }
+        
+        BigDecimal priceFactor = BigDecimal.ONE;
+        BigDecimal priceDelta = BigDecimal.ZERO;
+        if (request.getPriceMode() != null) {
+            BigDecimal value = request.getPriceValue();
+            if (value == null) {
+                throw new RuntimeException("A price value is required for " + request.getPriceMode());
+            }
+            switch (request.getPriceMode()) {
+                case PERCENT -> {
+                    if (value.compareTo(HUNDRED.negate()) <= 0) {
+                        throw new RuntimeException("A price cannot be reduced by " + value.negate() + "%");
+                    }
+                    priceFactor = BigDecimal.ONE.add(value.divide(HUNDRED));
+                }
+                case AMOUNT -> priceDelta = value;
+                case SET -> {
+                    if (value.signum() <= 0) {
+                        throw new RuntimeException("Price must be greater than 0");
+                    }
+                    priceFactor = BigDecimal.ZERO;
+                    priceDelta = value;
+                }
+            }
+        }
+        
+        int stockFactor = 1;
+        int stockDelta = 0;
+        if (request.getStockMode() != null) {
+            Integer value = request.getStockValue();
+            if (value == null) {
+                throw new RuntimeException("A stock value is required for " + request.getStockMode());
+            }
+            if (request.getStockMode() == ItemBulkAdjustmentRequest.StockMode.SET) {
+                if (value < 0) {
+                    throw new RuntimeException("Stock quantity cannot be negative");
+                }
+                stockFactor = 0;
+            }
+            stockDelta = value;
+        }
+        
+        if (request.getPriceMode() == null && request.getStockMode() == null) {
+            throw new RuntimeException("Nothing to adjust: give a price mode, a stock mode or both");
+        }
+        
+        // Ids or a filter, never both, and never an empty filter: that would select every item
+        if (hasIds && hasFilter) {
+            throw new RuntimeException("Give either item ids or a filter, not both");
+        }
+        if (!hasIds && !hasFilter) {
+            throw new RuntimeException("Give item ids or at least one filter (status, keyword)");
+        }
+        
+        List<Long> ids = hasIds
+                ? request.getItemIds().stream().distinct().toList()
+                : itemRepository.findIdsByFilter(request.getStatus(),
+                        request.getKeyword() == null || request.getKeyword().isBlank() ? null : request.getKeyword().trim());
+        
+        ItemBulkAdjustmentResult result = new ItemBulkAdjustmentResult();
+        for (int i = 0; i < ids.size(); i += ADJUSTMENT_BATCH_SIZE) {
+            List<Long> batch = ids.subList(i, Math.min(i + ADJUSTMENT_BATCH_SIZE, ids.size()));
+            adjustBatch(batch, priceFactor, priceDelta, stockFactor, stockDelta, result);
+        }
+        return result;
+    }
+    
+    private void adjustBatch(List<Long> ids, BigDecimal priceFactor, BigDecimal priceDelta,
+                             int stockFactor, int stockDelta, ItemBulkAdjustmentResult result) {
+        Map<Long, Object[]> before = new HashMap<>();
+        for (Object[] row : itemRepository.findVersionsByIdIn(ids)) {
+            before.put((Long) row[0], row);
+        }
+        if (before.isEmpty()) {
+            ids.forEach(id -> result.record(id, Outcome.NOT_FOUND));
+            return;
+        }
+        
+        // The ledger entries go first, while the old stock is still there to take the difference
+        // from; the column is caught up with the ledger before that
+        if (stockFactor != 1 || stockDelta != 0) {
+            itemRepository.refreshStockFromLedger(before.keySet());
+            stockLedgerService.recordBulkAdjustment(before.keySet(), priceFactor, priceDelta, stockFactor, stockDelta);
+        }
+        itemRepository.adjust(before.keySet(), priceFactor, priceDelta, stockFactor, stockDelta,
+                Item.ItemStatus.OUT_OF_STOCK, Item.ItemStatus.ACTIVE);
+        
+        // The update bumped the version of exactly the rows it changed
+        Map<Long, Item> adjusted = new HashMap<>();
+        for (Item item : itemRepository.findAllById(before.keySet())) {
+            if (!item.getVersion().equals(before.get(item.getId())[1])) {
+                adjusted.put(item.getId(), item);
+            }
+        }
+        
+        for (Long id : ids) {
+            Item item = adjusted.get(id);
+            if (item != null) {
+                result.record(id, Outcome.ADJUSTED);
+                Item.ItemStatus previous = (Item.ItemStatus) before.get(id)[2];
+                if (item.getStatus() != previous && item.getStatus() == Item.ItemStatus.OUT_OF_STOCK) {
+                    result.setOutOfStock(result.getOutOfStock() + 1);
+                } else if (item.getStatus() != previous && previous == Item.ItemStatus.OUT_OF_STOCK) {
+                    result.setBackInStock(result.getBackInStock() + 1);
+                }
+                publishItemChanged(item);
+            } else {
+                result.record(id, before.containsKey(id) ? Outcome.OUT_OF_RANGE : Outcome.NOT_FOUND);
+            }
+        }
+    }
+    
+    // A stock-take sets every item to its own count, so there is no single UPDATE for it: per
+    // batch the items are read once, the differences to the ledger are recorded, and the
+    // changed rows are written back as one JDBC batch of versioned updates at flush.
+    private ItemBulkAdjustmentResult countStock(Map<Long, Integer> counts) {
+        counts.forEach((id, count) -> {
+            if (id == null || count == null || count < 0) {
+                throw new RuntimeException("Invalid count " + count + " for item " + id);
+            }
+        });
+        
+        ItemBulkAdjustmentResult result = new ItemBulkAdjustmentResult();
+        for (List<Long> batch : StockLedgerService.batches(new ArrayList<>(counts.keySet()))) {
+            Map<Long, Item> items = new HashMap<>();
+            for (Item item : itemRepository.findAllById(batch)) {
+                items.put(item.getId(), item);
+            }
+            Map<Long, Integer> ledgerStock = stockLedgerService.currentStock(items.keySet());
+            Map<Long, Integer> differences = new HashMap<>();
+            for (Long id : items.keySet()) {
+                differences.put(id, counts.get(id) - ledgerStock.getOrDefault(id, 0));
+            }
+            stockLedgerService.recordAdjustments(differences, "Stock-take");
+            
+            for (Long id : batch) {
+                Item item = items.get(id);
+                if (item == null) {
+                    result.record(id, Outcome.NOT_FOUND);
+                    continue;
+                }
+                Item.ItemStatus previous = item.getStatus();
+                applyStock(item, counts.get(id));
+                result.record(id, Outcome.ADJUSTED);
+                if (item.getStatus() != previous && item.getStatus() == Item.ItemStatus.OUT_OF_STOCK) {
+                    result.setOutOfStock(result.getOutOfStock() + 1);
+                } else if (item.getStatus() != previous && previous == Item.ItemStatus.OUT_OF_STOCK) {
+                    result.setBackInStock(result.getBackInStock() + 1);
+                }
+                publishItemChanged(item);
+            }
+        }
+        return result;
     }
     
+    // Brings items.stock_quantity in line with the ledger (StockLedgerCompactor) without
+    // bumping the version: a compaction is not an edit and must not fail open edit forms.
+    // A stock edit racing with it has recorded its own movement, which the next run picks up.
+    @Transactional
+    public void syncStock(Map<Long, Integer> ledgerStock) {
+        for (List<Long> batch : StockLedgerService.batches(new ArrayList<>(ledgerStock.keySet()))) {
+            for (Item item : itemRepository.findAllById(batch)) {
+                Integer quantity = ledgerStock.get(item.getId());
+                if (!quantity.equals(item.getStockQuantity())) {
+                    itemRepository.syncStock(item.getId(), quantity, Item.ItemStatus.OUT_OF_STOCK, Item.ItemStatus.ACTIVE);
+                    // Detached by the update; only brought up to date for the listeners
+                    applyStock(item, quantity);
+                    publishItemChanged(item);
+                }
+            }
+        }
+    }
+    
+    @Transactional
     public void deleteItem(Long id) {
         if (itemRepository.existsById(id)) {
             itemRepository.deleteById(id);
+            lowStockWatcher.itemDeleted(id);
+            itemSearchIndex.itemDeleted(id);
         } else {
             throw new RuntimeException("Item not found with id: " + id);
         }
     }
     
     public Item deactivateItem(Long id) {
-        return itemRepository.findById(id)
+        return optimisticRetry.execute(() -> itemRepository.findById(id)
                 .map(item -> {
                     item.setStatus(Item.ItemStatus.INACTIVE);
-                    return itemRepository.save(item);
+                    return publishItemChanged(itemRepository.save(item));
                 })
-                .orElseThrow(() -> new RuntimeException("Item not found with id: " + id));
+                .orElseThrow(() -> new RuntimeException("Item not found with id: " + id)));
     }
     
     public Item activateItem(Long id) {
-        return itemRepository.findById(id)
+        return optimisticRetry.execute(() -> itemRepository.findById(id)
                 .map(item -> {
                     item.setStatus(Item.ItemStatus.ACTIVE);
-                    return itemRepository.save(item);
+                    return publishItemChanged(itemRepository.save(item));
                 })
-                .orElseThrow(() -> new RuntimeException("Item not found with id: " + id));
+                .orElseThrow(() -> new RuntimeException("Item not found with id: " + id)));
     }
     
+    @Transactional(readOnly = true)
     public long countItems() {
         return itemRepository.count();
     }
     
+    @Transactional(readOnly = true)
     public long countActiveItems() {
-        return itemRepository.findByStatus(Item.ItemStatus.ACTIVE).size();
+        return itemRepository.countByStatus(Item.ItemStatus.ACTIVE);
     }
     
+    @Transactional(readOnly = true)
     public long countLowStockItems(Integer threshold) {
         return itemRepository.findLowStockItems(threshold).size();
     }
+    
+    // Items at or below their own reorder threshold, served from memory
+    public List<LowStockItem> findItemsBelowReorderThreshold() {
+        return lowStockWatcher.getLowStockItems();
+    }
+    
+    public long countItemsBelowReorderThreshold() {
+        return lowStockWatcher.countLowStockItems();
+    }
+    
+    private static void applyStock(Item item, int quantity) {
+        item.setStockQuantity(quantity);
+        // Auto-update status based on stock
+        if (quantity <= 0) {
+            item.setStatus(Item.ItemStatus.OUT_OF_STOCK);
+        } else if (item.getStatus() == Item.ItemStatus.OUT_OF_STOCK) {
+            item.setStatus(Item.ItemStatus.ACTIVE);
+        }
+    }
+    
+    private static int stockOf(Item item) {
+        return item.getStockQuantity() != null ? item.getStockQuantity() : 0;
+    }
+    
+    // Every item write ends here, so the low-stock set and the search index see all changes
+    private Item publishItemChanged(Item item) {
+        outboxService.publish(EventType.ITEM_CHANGED, item.getId(), OutboxService.payload(
+                "itemId", item.getId(),
+                "stockQuantity", item.getStockQuantity(),
+                "reorderThreshold", item.getReorderThreshold(),
+                "status", item.getStatus(),
+                "price", item.getPrice()));
+        lowStockWatcher.stockChanged(item);
+        itemSearchIndex.itemChanged(item);
+        return item;
+    }
 }
@@ -0,0 +1,97 @@
+package com.springboot.project.service;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import com.springboot.project.event.LowStockCrossedEvent;
+import com.springboot.project.repository.ItemRepository;
+import com.springboot.project.entity.OutboxEvent.EventType;
+import org.springframework.context.event.EventListener;
+import com.springboot.project.dto.LowStockItem;
+import org.springframework.stereotype.Service;
+import com.springboot.project.entity.Item;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+// In-memory set of items at or below their reorder threshold. Seeded by one query at
+// startup and then kept current by ItemService, which reports every stock mutation.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LowStockWatcher {
+
+    private final ItemRepository itemRepository;
+    private final OutboxService outboxService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Map<Long, LowStockItem> lowStock = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadLowStockItems() {
+        lowStock.clear();
+        for (LowStockItem item : itemRepository.findBelowReorderThreshold()) {
+            lowStock.put(item.getId(), item);
+        }
+        log.info("{} items at or below their reorder threshold", lowStock.size());
+    }
+
+    // Called inside the item's write transaction. A threshold crossing is published to the
+    // outbox with the change; the in-memory set only changes once the transaction commits.
+    public void stockChanged(Item item) {
+        LowStockItem entry = new LowStockItem(item.getId(), item.getItemCode(), item.getName(),
+                item.getStockQuantity(), item.getReorderThreshold());
+        boolean low = item.getStockQuantity() != null && item.getReorderThreshold() != null
+                && item.getStockQuantity() <= item.getReorderThreshold();
+        boolean wasLow = lowStock.containsKey(item.getId());
+
+        if (low != wasLow) {
+            outboxService.publish(low ? EventType.ITEM_LOW_STOCK : EventType.ITEM_RESTOCKED, item.getId(),
+                    OutboxService.payload(
+                            "itemId", item.getId(),
+                            "stockQuantity", item.getStockQuantity(),
+                            "reorderThreshold", item.getReorderThreshold()));
+        }
+        afterCommit(() -> {
+            if (low) {
+                lowStock.put(entry.getId(), entry);
+            } else {
+                lowStock.remove(entry.getId());
+            }
+            if (low != wasLow) {
+                eventPublisher.publishEvent(new LowStockCrossedEvent(entry, low));
+            }
+        });
+    }
+
+    public void itemDeleted(Long id) {
+        afterCommit(() -> lowStock.remove(id));
+    }
+
+    public List<LowStockItem> getLowStockItems() {
+        return lowStock.values().stream()
+                .sorted(Comparator.comparing(LowStockItem::getStockQuantity).thenComparing(LowStockItem::getName))
+                .toList();
+    }
+
+    public long countLowStockItems() {
+        return lowStock.size();
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,67 @@
+package com.springboot.project.service;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+
+// Runs a read-modify-write in its own transaction and repeats it from a fresh read when a
+// concurrent update wins the version check. Only for operations that are safe to apply
+// again, such as setting a field to a given value. Inside a caller's transaction a retry
+// would read the same stale state, so the conflict is left to the caller.
+@Slf4j
+@Component
+public class OptimisticRetry {
+
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final long backoffMillis;
+
+    public OptimisticRetry(TransactionTemplate transactionTemplate,
+                           @Value("${app.optimistic-locking.max-attempts:3}") int maxAttempts,
+                           @Value("${app.optimistic-locking.backoff-ms:20}") long backoffMillis) {
+        this.transactionTemplate = transactionTemplate;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffMillis = backoffMillis;
+    }
+
+    public <T> T execute(Supplier<T> operation) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return operation.get();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> operation.get());
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                log.debug("Optimistic lock conflict, retrying (attempt {} of {})", attempt + 1, maxAttempts);
+                pause(attempt);
+            }
+        }
+    }
+
+    // For edits of a whole entity: the caller read it at expectedVersion, and overwriting a
+    // newer state would silently drop someone else's change. Null means no version was given.
+    public static void checkVersion(String entity, Long id, Long expectedVersion, Long currentVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(currentVersion)) {
+            throw new OptimisticLockingFailureException(entity + " " + id + " was changed by someone else (version "
+                    + currentVersion + ", edit was based on " + expectedVersion + ")");
+        }
+    }
+
+    // Randomized, growing pause so the conflicting writers do not collide again
+    private void pause(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(backoffMillis * attempt + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying", e);
+        }
+    }
+}
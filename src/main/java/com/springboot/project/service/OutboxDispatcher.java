@@ -0,0 +1,177 @@
+package com.springboot.project.service;
+
+import org.springframework.transaction.support.TransactionTemplate;
+import com.springboot.project.repository.OutboxEventRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Value;
+import com.springboot.project.entity.OutboxEvent;
+import org.springframework.stereotype.Service;
+import org.springframework.data.domain.Limit;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import java.time.LocalDateTime;
+import java.time.Duration;
+import java.util.*;
+
+@Slf4j
+@Service
+public class OutboxDispatcher {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<OutboxEventHandler> handlers;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService workers;
+
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final Counter dispatched;
+    private final Counter failed;
+    private final Counter deadLettered;
+
+    @Value("${app.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    // Retries back off exponentially: the first after retry-initial-ms, each later one twice as
+    // long after the previous, up to retry-max-ms
+    @Value("${app.outbox.retry-initial-ms:1000}")
+    private long retryInitialMillis;
+
+    @Value("${app.outbox.retry-max-ms:300000}")
+    private long retryMaxMillis;
+
+    @Value("${app.outbox.retention-days:7}")
+    private int retentionDays;
+
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository,
+                            List<OutboxEventHandler> handlers,
+                            TransactionTemplate transactionTemplate,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.outbox.workers:4}") int workerCount) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.handlers = handlers;
+        this.transactionTemplate = transactionTemplate;
+        this.workers = Executors.newFixedThreadPool(workerCount);
+
+        Gauge.builder("outbox.pending", outboxEventRepository, OutboxEventRepository::countPending)
+                .description("Outbox events waiting to be dispatched")
+                .register(meterRegistry);
+        Gauge.builder("outbox.lag", lagMillis, lag -> lag.get() / 1000.0)
+                .description("Age of the oldest pending outbox event at the last poll")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.dispatched = meterRegistry.counter("outbox.dispatched");
+        this.failed = meterRegistry.counter("outbox.failed");
+        this.deadLettered = meterRegistry.counter("outbox.dead.lettered");
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:500}")
+    public void dispatch() {
+        List<OutboxEvent> batch = outboxEventRepository.findPending(LocalDateTime.now(), Limit.of(batchSize));
+        if (batch.isEmpty()) {
+            lagMillis.set(0);
+            return;
+        }
+        lagMillis.set(Duration.between(batch.get(0).getCreatedAt(), LocalDateTime.now()).toMillis());
+
+        // Aggregates are handled in parallel, but each aggregate's events run in id order on one worker
+        Map<String, List<OutboxEvent>> byAggregate = new LinkedHashMap<>();
+        for (OutboxEvent event : batch) {
+            byAggregate.computeIfAbsent(event.getAggregateType() + ":" + event.getAggregateId(),
+                    key -> new ArrayList<>()).add(event);
+        }
+
+        List<Future<List<Long>>> results = new ArrayList<>();
+        for (List<OutboxEvent> events : byAggregate.values()) {
+            results.add(workers.submit(() -> deliver(events)));
+        }
+
+        List<Long> processedIds = new ArrayList<>();
+        for (Future<List<Long>> result : results) {
+            try {
+                processedIds.addAll(result.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Outbox worker failed", e);
+            }
+        }
+
+        if (!processedIds.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status ->
+                    outboxEventRepository.markProcessed(processedIds, LocalDateTime.now()));
+            dispatched.increment(processedIds.size());
+        }
+    }
+
+    // Returns the ids delivered successfully; stops at the first failure to keep the aggregate's order
+    private List<Long> deliver(List<OutboxEvent> events) {
+        List<Long> delivered = new ArrayList<>();
+        for (OutboxEvent event : events) {
+            try {
+                for (OutboxEventHandler handler : handlers) {
+                    if (handler.supports(event.getEventType())) {
+                        handler.handle(event);
+                    }
+                }
+                delivered.add(event.getId());
+            } catch (Exception e) {
+                recordFailure(event, e);
+                break;
+            }
+        }
+        return delivered;
+    }
+
+    private void recordFailure(OutboxEvent event, Exception e) {
+        failed.increment();
+        boolean giveUp = event.getAttempts() + 1 >= maxAttempts;
+        String error = String.valueOf(e.getMessage());
+        if (error.length() > 1000) {
+            error = error.substring(0, 1000);
+        }
+        if (giveUp) {
+            deadLettered.increment();
+            log.error("Giving up on outbox event {} ({} {}) after {} attempts",
+                    event.getId(), event.getEventType(), event.getAggregateId(), maxAttempts, e);
+        }
+        Duration delay = retryDelay(event.getAttempts() + 1);
+        if (!giveUp) {
+            log.warn("Outbox event {} ({} {}) failed, will retry in {} ms: {}",
+                    event.getId(), event.getEventType(), event.getAggregateId(), delay.toMillis(), error);
+        }
+        String lastError = error;
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> outboxEventRepository.recordFailure(event.getId(), lastError,
+                giveUp ? now : null, giveUp ? null : now.plus(delay)));
+    }
+
+    // Delay before the next attempt after the given number of failed ones
+    private Duration retryDelay(int failures) {
+        long delay = retryInitialMillis << Math.min(failures - 1, 30);
+        return Duration.ofMillis(delay > 0 ? Math.min(delay, retryMaxMillis) : retryMaxMillis);
+    }
+
+    @Scheduled(cron = "${app.outbox.cleanup-cron:0 0 * * * *}")
+    public void deleteProcessedEvents() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        Integer deleted = transactionTemplate.execute(status -> outboxEventRepository.deleteProcessedBefore(cutoff));
+        if (deleted != null && deleted > 0) {
+            log.info("Deleted {} processed outbox events older than {} days", deleted, retentionDays);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+}
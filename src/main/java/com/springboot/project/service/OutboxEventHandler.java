@@ -0,0 +1,12 @@
+package com.springboot.project.service;
+
+import com.springboot.project.entity.OutboxEvent;
+
+// In-process consumer of outbox events. Delivery is at-least-once, so handlers must be
+// idempotent; events of the same aggregate are delivered in the order they were written.
+public interface OutboxEventHandler {
+
+    boolean supports(OutboxEvent.EventType eventType);
+
+    void handle(OutboxEvent event);
+}
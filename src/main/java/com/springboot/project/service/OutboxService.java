@@ -0,0 +1,39 @@
+package com.springboot.project.service;
+
+import com.springboot.project.repository.OutboxEventRepository;
+import org.springframework.transaction.annotation.Transactional;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.springboot.project.entity.OutboxEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+import lombok.RequiredArgsConstructor;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    // Joins the caller's transaction, so the event commits or rolls back with the change itself
+    @Transactional
+    public OutboxEvent publish(OutboxEvent.EventType eventType, Long aggregateId, Map<String, Object> payload) {
+        try {
+            String json = objectMapper.writeValueAsString(payload);
+            return outboxEventRepository.save(new OutboxEvent(eventType, aggregateId, json));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize " + eventType + " event: " + e.getMessage(), e);
+        }
+    }
+
+    // Builds a payload from key/value pairs; unlike Map.of it accepts null values
+    public static Map<String, Object> payload(Object... keysAndValues) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            payload.put((String) keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return payload;
+    }
+}
@@ -0,0 +1,206 @@
+package com.springboot.project.service;
+
+import com.springboot.project.repository.BillItemRepository;
+import com.springboot.project.repository.BillRepository;
+import org.springframework.beans.factory.annotation.Value;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.springboot.project.entity.OutboxEvent;
+import org.springframework.stereotype.Service;
+import com.springboot.project.entity.BillItem;
+import com.springboot.project.entity.Bill;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.ITemplateEngine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import java.util.concurrent.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HexFormat;
+import java.util.stream.Stream;
+import java.util.List;
+import java.util.Map;
+
+// Printable bill receipts. Rendering runs on a bounded worker pool; the result is cached on
+// disk as <dir>/<database>/<billId>/<version>.html, where the version is a digest of everything
+// the receipt shows, so a changed bill gets a new file and unchanged bills are never re-rendered.
+// <database> is a digest of the datasource URL: bill ids are only unique within one database,
+// and nodes or test runs on other databases must not serve or clean up each other's files.
+// Bills that become PAID are rendered in the background from their outbox event.
+@Slf4j
+@Service
+public class ReceiptService implements OutboxEventHandler {
+
+    // Bump when receipt.html changes, so cached receipts are rendered again
+    private static final String TEMPLATE_VERSION = "1";
+
+    private final BillRepository billRepository;
+    private final BillItemRepository billItemRepository;
+    private final ITemplateEngine templateEngine;
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final ThreadPoolExecutor workers;
+    private final Map<Path, CompletableFuture<Path>> rendering = new ConcurrentHashMap<>();
+
+    public ReceiptService(BillRepository billRepository,
+                          BillItemRepository billItemRepository,
+                          ITemplateEngine templateEngine,
+                          ObjectMapper objectMapper,
+                          @Value("${app.receipts.dir:${user.dir}/data/receipts}") Path directory,
+                          @Value("${spring.datasource.url}") String databaseUrl,
+                          @Value("${app.receipts.workers:2}") int workerCount,
+                          @Value("${app.receipts.queue-capacity:100}") int queueCapacity) {
+        this.billRepository = billRepository;
+        this.billItemRepository = billItemRepository;
+        this.templateEngine = templateEngine;
+        this.objectMapper = objectMapper;
+        this.directory = directory.resolve(digest(databaseUrl, 8));
+        // Bounded queue: when it is full, submissions are rejected instead of piling up
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity));
+    }
+
+    // Completes with the cached receipt file, rendering it first if needed. Fails with
+    // RejectedExecutionException when the render queue is full.
+    public CompletableFuture<Path> getReceipt(Long billId) {
+        Bill bill = billRepository.findWithCustomerById(billId)
+                .orElseThrow(() -> new RuntimeException("Bill not found with id: " + billId));
+        List<BillItem> lines = billItemRepository.findByBillIdWithItem(billId);
+        Path file = directory.resolve(billId.toString()).resolve(version(bill, lines) + ".html");
+        if (Files.exists(file)) {
+            return CompletableFuture.completedFuture(file);
+        }
+
+        // Concurrent requests for the same receipt share one render
+        CompletableFuture<Path> render = new CompletableFuture<>();
+        CompletableFuture<Path> existing = rendering.putIfAbsent(file, render);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    render.complete(render(bill, lines, file));
+                } catch (Exception e) {
+                    render.completeExceptionally(e);
+                } finally {
+                    rendering.remove(file, render);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rendering.remove(file, render);
+            render.completeExceptionally(e);
+        }
+        return render;
+    }
+
+    private Path render(Bill bill, List<BillItem> lines, Path file) throws IOException {
+        Context context = new Context();
+        context.setVariable("bill", bill);
+        context.setVariable("lines", lines);
+        String html = templateEngine.process("receipt", context);
+
+        // Write next to the target and move it into place, so readers never see a partial file
+        Path billDirectory = file.getParent();
+        Files.createDirectories(billDirectory);
+        Path temp = Files.createTempFile(billDirectory, "render", ".tmp");
+        Files.writeString(temp, html, StandardCharsets.UTF_8);
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        deleteOtherVersions(billDirectory, file);
+        return file;
+    }
+
+    private String version(Bill bill, List<BillItem> lines) {
+        StringBuilder content = new StringBuilder(TEMPLATE_VERSION)
+                .append('|').append(bill.getId())
+                .append('|').append(bill.getBillNumber())
+                .append('|').append(bill.getStatus())
+                .append('|').append(bill.getTotalAmount())
+                .append('|').append(bill.getTaxAmount())
+                .append('|').append(bill.getDiscountAmount())
+                .append('|').append(bill.getFinalAmount())
+                .append('|').append(bill.getCreatedAt())
+                .append('|').append(bill.getPaidAt())
+                .append('|').append(bill.getCustomer().getName())
+                .append('|').append(bill.getCustomer().getAddress())
+                .append('|').append(bill.getCustomer().getTelephone())
+                .append('|').append(bill.getCustomer().getAccountNumber());
+        for (BillItem line : lines) {
+            content.append('|').append(line.getItem().getItemCode())
+                    .append('|').append(line.getItem().getName())
+                    .append('|').append(line.getQuantity())
+                    .append('|').append(line.getUnitPrice())
+                    .append('|').append(line.getTotalPrice());
+        }
+        return digest(content.toString(), 12);
+    }
+
+    // The first bytes of the SHA-256 of the text, in hex
+    private static String digest(String text, int bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void deleteOtherVersions(Path billDirectory, Path keep) {
+        try (Stream<Path> files = Files.list(billDirectory)) {
+            files.filter(path -> !path.equals(keep) && path.toString().endsWith(".html"))
+                    .forEach(this::deleteQuietly);
+        } catch (IOException e) {
+            log.debug("Could not clean up old receipts in {}: {}", billDirectory, e.getMessage());
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.debug("Could not delete {}: {}", path, e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean supports(OutboxEvent.EventType eventType) {
+        return switch (eventType) {
+            case BILL_CREATED, BILL_UPDATED, BILL_STATUS_CHANGED, BILL_DELETED -> true;
+            default -> false;
+        };
+    }
+
+    // Pre-renders receipts of bills that are now PAID and drops the cache of deleted bills.
+    // Best effort: a full queue or a bill deleted in the meantime is not retried.
+    @Override
+    public void handle(OutboxEvent event) {
+        Long billId = event.getAggregateId();
+        if (event.getEventType() == OutboxEvent.EventType.BILL_DELETED) {
+            Path billDirectory = directory.resolve(billId.toString());
+            if (Files.isDirectory(billDirectory)) {
+                deleteOtherVersions(billDirectory, null);
+                deleteQuietly(billDirectory);
+            }
+            return;
+        }
+        try {
+            JsonNode payload = objectMapper.readTree(event.getPayload() != null ? event.getPayload() : "{}");
+            String status = payload.has("to") ? payload.path("to").asText() : payload.path("status").asText();
+            if (Bill.BillStatus.PAID.name().equals(status)) {
+                getReceipt(billId);
+            }
+        } catch (Exception e) {
+            log.debug("Skipped pre-rendering receipt for bill {}: {}", billId, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+}
@@ -0,0 +1,566 @@
+package com.springboot.project.service;
+
+import com.springboot.project.repository.ArchivedBillItemRepository;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import com.springboot.project.repository.BillItemRepository;
+import com.springboot.project.repository.CustomerRepository;
+import com.springboot.project.repository.ItemRepository;
+import org.springframework.context.event.EventListener;
+import org.springframework.beans.factory.annotation.Value;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springboot.project.dto.SalesAggregate;
+import com.springboot.project.entity.OutboxEvent;
+import org.springframework.stereotype.Service;
+import com.springboot.project.dto.SalesLine;
+import org.springframework.data.domain.Limit;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Gauge;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.springboot.project.entity.Bill;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import java.math.RoundingMode;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+
+// Columnar in-memory copy of every bill line, live and archived, for sales reports. Each
+// column is a primitive array indexed by row, and a bill's lines occupy consecutive rows.
+// Loaded at startup, then kept current from bill outbox events: a changed bill's rows are
+// tombstoned and its lines appended again, a status change is written into its rows in
+// place. Reports are parallel fork-join scans over the columns, never touching the database.
+@Slf4j
+@Service
+public class SalesAnalyticsEngine implements OutboxEventHandler {
+
+    private static final byte DELETED = -1;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final BillItemRepository billItemRepository;
+    private final ArchivedBillItemRepository archivedBillItemRepository;
+    private final ItemRepository itemRepository;
+    private final CustomerRepository customerRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ForkJoinPool scanPool;
+
+    // Written under the engine's lock; readers take the current columns and their size
+    private volatile Columns columns = new Columns(INITIAL_CAPACITY);
+    private volatile boolean loaded;
+
+    // Guarded by this. Bill id -> {first row, row count}
+    private final Map<Long, int[]> billRows = new HashMap<>();
+    private int deletedRows;
+    // Events received while a load is running, replayed once it finishes; null when idle
+    private List<OutboxEvent> pendingEvents;
+
+    @Value("${app.analytics.load-batch-size:5000}")
+    private int loadBatchSize;
+
+    @Value("${app.analytics.scan-chunk-rows:16384}")
+    private int scanChunkRows;
+
+    public SalesAnalyticsEngine(BillItemRepository billItemRepository,
+                                ArchivedBillItemRepository archivedBillItemRepository,
+                                ItemRepository itemRepository,
+                                CustomerRepository customerRepository,
+                                TransactionTemplate transactionTemplate,
+                                ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.analytics.parallelism:0}") int parallelism) {
+        this.billItemRepository = billItemRepository;
+        this.archivedBillItemRepository = archivedBillItemRepository;
+        this.itemRepository = itemRepository;
+        this.customerRepository = customerRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.scanPool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        Gauge.builder("analytics.rows", this, engine -> engine.columns.size - engine.deletedRows)
+                .description("Bill lines held by the sales analytics engine")
+                .register(meterRegistry);
+    }
+
+    // Full (re)load, e.g. at startup or after a bulk job that bypasses the outbox.
+    // Queries keep answering from the previous columns until the new ones are swapped in.
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        synchronized (this) {
+            if (pendingEvents != null) {
+                log.info("Sales analytics load already running");
+                return;
+            }
+            pendingEvents = new ArrayList<>();
+        }
+
+        long start = System.currentTimeMillis();
+        Map<Long, int[]> freshRows = new HashMap<>();
+        Columns fresh;
+        try {
+            // One transaction on the primary: both tables are read from the same snapshot, so a
+            // bill archived meanwhile is neither missed nor counted twice
+            fresh = transactionTemplate.execute(status -> {
+                Columns live = Columns.appendAll(new Columns(INITIAL_CAPACITY), freshRows, (afterBillId, afterId) ->
+                        billItemRepository.findSalesLinesAfter(afterBillId, afterId, Limit.of(loadBatchSize)));
+                return Columns.appendAll(live, freshRows, (afterBillId, afterId) ->
+                        archivedBillItemRepository.findSalesLinesAfter(afterBillId, afterId, Limit.of(loadBatchSize)));
+            });
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                pendingEvents = null;
+            }
+            throw e;
+        }
+
+        synchronized (this) {
+            columns = fresh;
+            billRows.clear();
+            billRows.putAll(freshRows);
+            deletedRows = 0;
+        }
+        // Events that arrived during the load may predate the snapshot; replaying them is
+        // harmless because every event is applied from the bill's current state or in order
+        while (true) {
+            List<OutboxEvent> replay;
+            synchronized (this) {
+                if (pendingEvents.isEmpty()) {
+                    pendingEvents = null;
+                    loaded = true;
+                    break;
+                }
+                replay = pendingEvents;
+                pendingEvents = new ArrayList<>();
+            }
+            replay.forEach(this::apply);
+        }
+        log.info("Loaded {} bill lines into sales analytics in {} ms", fresh.size, System.currentTimeMillis() - start);
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    @Override
+    public boolean supports(OutboxEvent.EventType eventType) {
+        return switch (eventType) {
+            case BILL_CREATED, BILL_UPDATED, BILL_STATUS_CHANGED, BILL_DELETED, CUSTOMER_DELETED -> true;
+            default -> false;
+        };
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        synchronized (this) {
+            if (pendingEvents != null) {
+                pendingEvents.add(event);
+                return;
+            }
+        }
+        apply(event);
+    }
+
+    private void apply(OutboxEvent event) {
+        Long id = event.getAggregateId();
+        switch (event.getEventType()) {
+            case BILL_DELETED -> removeBill(id);
+            case BILL_STATUS_CHANGED -> setStatus(id, Bill.BillStatus.valueOf(payload(event).path("to").asText()));
+            case CUSTOMER_DELETED -> {
+                // Archived customers keep their bill history
+                if (!payload(event).path("archived").asBoolean()) {
+                    removeCustomer(id);
+                }
+            }
+            default -> {
+                // Created or edited: the lines may have changed, so take them from the database
+                List<SalesLine> lines = transactionTemplate.execute(status -> billItemRepository.findSalesLinesByBillId(id));
+                replaceBill(id, lines != null ? lines : List.of());
+            }
+        }
+    }
+
+    private synchronized void replaceBill(Long billId, List<SalesLine> lines) {
+        deleteRows(billRows.remove(billId));
+        if (!lines.isEmpty()) {
+            if (columns.size + lines.size() > columns.capacity()) {
+                columns = columns.grow(columns.size + lines.size());
+            }
+            int first = columns.size;
+            for (int i = 0; i < lines.size(); i++) {
+                columns.set(first + i, lines.get(i));
+            }
+            columns.size = first + lines.size();
+            billRows.put(billId, new int[]{first, lines.size()});
+        }
+        compactIfNeeded();
+    }
+
+    private synchronized void removeBill(Long billId) {
+        deleteRows(billRows.remove(billId));
+        compactIfNeeded();
+    }
+
+    private synchronized void setStatus(Long billId, Bill.BillStatus status) {
+        int[] rows = billRows.get(billId);
+        if (rows != null) {
+            Arrays.fill(columns.status, rows[0], rows[0] + rows[1], (byte) status.ordinal());
+        }
+    }
+
+    private synchronized void removeCustomer(Long customerId) {
+        Columns current = columns;
+        Set<Long> bills = new HashSet<>();
+        for (int row = 0; row < current.size; row++) {
+            if (current.customerId[row] == customerId && current.status[row] != DELETED) {
+                bills.add(current.billId[row]);
+            }
+        }
+        bills.forEach(billId -> deleteRows(billRows.remove(billId)));
+        compactIfNeeded();
+    }
+
+    private void deleteRows(int[] rows) {
+        if (rows != null) {
+            Arrays.fill(columns.status, rows[0], rows[0] + rows[1], DELETED);
+            deletedRows += rows[1];
+        }
+    }
+
+    // Edits leave tombstones behind; rebuild once they make up half of the rows
+    private void compactIfNeeded() {
+        if (deletedRows < INITIAL_CAPACITY || deletedRows * 2 < columns.size) {
+            return;
+        }
+        Columns current = columns;
+        Columns compacted = new Columns(Math.max(INITIAL_CAPACITY, (current.size - deletedRows) * 2));
+        for (int[] rows : billRows.values()) {
+            int first = compacted.size;
+            compacted.copyRows(current, rows[0], rows[1]);
+            rows[0] = first;
+        }
+        columns = compacted;
+        deletedRows = 0;
+    }
+
+    private JsonNode payload(OutboxEvent event) {
+        try {
+            return objectMapper.readTree(event.getPayload() != null ? event.getPayload() : "{}");
+        } catch (Exception e) {
+            throw new RuntimeException("Unreadable payload of outbox event " + event.getId() + ": " + e.getMessage(), e);
+        }
+    }
+
+    // Reports. Dates are inclusive bill dates, null meaning unbounded; only bills in one of
+    // the given statuses count.
+
+    public List<SalesAggregate> topItems(LocalDate from, LocalDate to, Set<Bill.BillStatus> statuses,
+                                         int limit, boolean byQuantity) {
+        Aggregates result = scan(Dimension.ITEM, from, to, statuses);
+        int[] top = result.top(limit, byQuantity);
+        Map<Long, String> names = new HashMap<>();
+        itemRepository.findAllById(result.keys(top)).forEach(item -> names.put(item.getId(), item.getName()));
+        return result.toList(top, key -> names.getOrDefault(key, "Item #" + key));
+    }
+
+    public List<SalesAggregate> revenueByCustomer(LocalDate from, LocalDate to, Set<Bill.BillStatus> statuses, int limit) {
+        Aggregates result = scan(Dimension.CUSTOMER, from, to, statuses);
+        int[] top = result.top(limit, false);
+        Map<Long, String> names = new HashMap<>();
+        customerRepository.findAllById(result.keys(top)).forEach(customer -> names.put(customer.getId(), customer.getName()));
+        return result.toList(top, key -> names.getOrDefault(key, "Customer #" + key));
+    }
+
+    public List<SalesAggregate> revenueByDay(LocalDate from, LocalDate to, Set<Bill.BillStatus> statuses) {
+        Aggregates result = scan(Dimension.DAY, from, to, statuses);
+        return result.toList(result.sortedByKey(), key -> LocalDate.ofEpochDay(key).toString());
+    }
+
+    public List<SalesAggregate> revenueByHour(LocalDate from, LocalDate to, Set<Bill.BillStatus> statuses) {
+        Aggregates result = scan(Dimension.HOUR, from, to, statuses);
+        return result.toList(result.sortedByKey(), key -> String.format("%02d:00", key));
+    }
+
+    private Aggregates scan(Dimension dimension, LocalDate from, LocalDate to, Set<Bill.BillStatus> statuses) {
+        Columns snapshot = columns;
+        int size = snapshot.size;
+        int statusMask = 0;
+        for (Bill.BillStatus status : statuses) {
+            statusMask |= 1 << status.ordinal();
+        }
+        int fromDay = from != null ? (int) from.toEpochDay() : Integer.MIN_VALUE;
+        int toDay = to != null ? (int) to.toEpochDay() : Integer.MAX_VALUE;
+        return scanPool.invoke(new ScanTask(snapshot, 0, size, dimension, fromDay, toDay, statusMask, scanChunkRows));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scanPool.shutdown();
+    }
+
+    private enum Dimension {
+        ITEM, CUSTOMER, DAY, HOUR;
+
+        long key(Columns columns, int row) {
+            return switch (this) {
+                case ITEM -> columns.itemId[row];
+                case CUSTOMER -> columns.customerId[row];
+                case DAY -> columns.epochDay[row];
+                case HOUR -> columns.hour[row];
+            };
+        }
+    }
+
+    // Splits the row range in halves down to chunkRows, scans the chunks and merges upwards
+    private static final class ScanTask extends RecursiveTask<Aggregates> {
+        private final Columns columns;
+        private final int from;
+        private final int to;
+        private final Dimension dimension;
+        private final int fromDay;
+        private final int toDay;
+        private final int statusMask;
+        private final int chunkRows;
+
+        private ScanTask(Columns columns, int from, int to, Dimension dimension,
+                         int fromDay, int toDay, int statusMask, int chunkRows) {
+            this.columns = columns;
+            this.from = from;
+            this.to = to;
+            this.dimension = dimension;
+            this.fromDay = fromDay;
+            this.toDay = toDay;
+            this.statusMask = statusMask;
+            this.chunkRows = chunkRows;
+        }
+
+        @Override
+        protected Aggregates compute() {
+            if (to - from <= chunkRows) {
+                Aggregates result = new Aggregates(64);
+                for (int row = from; row < to; row++) {
+                    byte status = columns.status[row];
+                    int day = columns.epochDay[row];
+                    if (status != DELETED && (statusMask & (1 << status)) != 0 && day >= fromDay && day <= toDay) {
+                        result.add(dimension.key(columns, row), columns.cents[row], columns.quantity[row], 1);
+                    }
+                }
+                return result;
+            }
+            int middle = (from + to) >>> 1;
+            ScanTask left = new ScanTask(columns, from, middle, dimension, fromDay, toDay, statusMask, chunkRows);
+            ScanTask right = new ScanTask(columns, middle, to, dimension, fromDay, toDay, statusMask, chunkRows);
+            left.fork();
+            Aggregates result = right.compute();
+            result.addAll(left.join());
+            return result;
+        }
+    }
+
+    // Open-addressing map from a long key to revenue (cents), quantity and line count
+    private static final class Aggregates {
+        private long[] keys;
+        private long[] cents;
+        private long[] quantity;
+        private long[] lines;
+        private boolean[] used;
+        private int size;
+
+        private Aggregates(int capacity) {
+            allocate(Integer.highestOneBit(Math.max(16, capacity) - 1) << 1);
+        }
+
+        private void allocate(int capacity) {
+            keys = new long[capacity];
+            cents = new long[capacity];
+            quantity = new long[capacity];
+            lines = new long[capacity];
+            used = new boolean[capacity];
+        }
+
+        private void add(long key, long addCents, long addQuantity, long addLines) {
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            while (used[slot] && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (!used[slot]) {
+                if ((size + 1) * 2 > keys.length) {
+                    resize();
+                    add(key, addCents, addQuantity, addLines);
+                    return;
+                }
+                used[slot] = true;
+                keys[slot] = key;
+                size++;
+            }
+            cents[slot] += addCents;
+            quantity[slot] += addQuantity;
+            lines[slot] += addLines;
+        }
+
+        private void addAll(Aggregates other) {
+            for (int slot = 0; slot < other.keys.length; slot++) {
+                if (other.used[slot]) {
+                    add(other.keys[slot], other.cents[slot], other.quantity[slot], other.lines[slot]);
+                }
+            }
+        }
+
+        private void resize() {
+            long[] oldKeys = keys, oldCents = cents, oldQuantity = quantity, oldLines = lines;
+            boolean[] oldUsed = used;
+            allocate(keys.length * 2);
+            size = 0;
+            for (int slot = 0; slot < oldKeys.length; slot++) {
+                if (oldUsed[slot]) {
+                    add(oldKeys[slot], oldCents[slot], oldQuantity[slot], oldLines[slot]);
+                }
+            }
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+
+        // Slots of the k largest groups by revenue or quantity, largest first
+        private int[] top(int k, boolean byQuantity) {
+            long[] metric = byQuantity ? quantity : cents;
+            PriorityQueue<Integer> heap = new PriorityQueue<>(Comparator.comparingLong(slot -> metric[slot]));
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (used[slot]) {
+                    heap.add(slot);
+                    if (heap.size() > k) {
+                        heap.poll();
+                    }
+                }
+            }
+            int[] top = new int[heap.size()];
+            for (int i = top.length - 1; i >= 0; i--) {
+                top[i] = heap.poll();
+            }
+            return top;
+        }
+
+        private int[] sortedByKey() {
+            return Arrays.stream(slots()).boxed()
+                    .sorted(Comparator.comparingLong(slot -> keys[slot]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+
+        private int[] slots() {
+            int[] slots = new int[size];
+            int next = 0;
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (used[slot]) {
+                    slots[next++] = slot;
+                }
+            }
+            return slots;
+        }
+
+        private List<Long> keys(int[] slots) {
+            return Arrays.stream(slots).mapToObj(slot -> keys[slot]).toList();
+        }
+
+        private List<SalesAggregate> toList(int[] slots, Function<Long, String> label) {
+            List<SalesAggregate> result = new ArrayList<>(slots.length);
+            for (int slot : slots) {
+                result.add(new SalesAggregate(keys[slot], label.apply(keys[slot]),
+                        BigDecimal.valueOf(cents[slot], 2), quantity[slot], lines[slot]));
+            }
+            return result;
+        }
+    }
+
+    private interface LinePage {
+        List<SalesLine> after(Long billId, Long id);
+    }
+
+    private static final class Columns {
+        private final long[] billId;
+        private final long[] itemId;
+        private final long[] customerId;
+        private final long[] cents;
+        private final int[] quantity;
+        private final int[] epochDay;
+        private final byte[] hour;
+        private final byte[] status;
+        // Rows below size are complete; written only by the engine under its lock
+        private volatile int size;
+
+        private Columns(int capacity) {
+            billId = new long[capacity];
+            itemId = new long[capacity];
+            customerId = new long[capacity];
+            cents = new long[capacity];
+            quantity = new int[capacity];
+            epochDay = new int[capacity];
+            hour = new byte[capacity];
+            status = new byte[capacity];
+        }
+
+        private int capacity() {
+            return billId.length;
+        }
+
+        private Columns grow(int minCapacity) {
+            Columns grown = new Columns(Math.max(minCapacity, capacity() * 2));
+            grown.copyRows(this, 0, size);
+            return grown;
+        }
+
+        private void copyRows(Columns source, int from, int count) {
+            int to = size;
+            System.arraycopy(source.billId, from, billId, to, count);
+            System.arraycopy(source.itemId, from, itemId, to, count);
+            System.arraycopy(source.customerId, from, customerId, to, count);
+            System.arraycopy(source.cents, from, cents, to, count);
+            System.arraycopy(source.quantity, from, quantity, to, count);
+            System.arraycopy(source.epochDay, from, epochDay, to, count);
+            System.arraycopy(source.hour, from, hour, to, count);
+            System.arraycopy(source.status, from, status, to, count);
+            size = to + count;
+        }
+
+        private void set(int row, SalesLine line) {
+            billId[row] = line.getBillId();
+            itemId[row] = line.getItemId();
+            customerId[row] = line.getCustomerId();
+            cents[row] = line.getTotalPrice() != null
+                    ? line.getTotalPrice().setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact() : 0;
+            quantity[row] = line.getQuantity() != null ? line.getQuantity() : 0;
+            epochDay[row] = line.getCreatedAt() != null ? (int) line.getCreatedAt().toLocalDate().toEpochDay() : 0;
+            hour[row] = (byte) (line.getCreatedAt() != null ? line.getCreatedAt().getHour() : 0);
+            status[row] = (byte) line.getStatus().ordinal();
+        }
+
+        // Appends pages ordered by (bill id, line id), recording each bill's row range.
+        // Returns the columns holding the result, which are new ones if they had to grow.
+        private static Columns appendAll(Columns target, Map<Long, int[]> billRows, LinePage pages) {
+            Long afterBillId = 0L;
+            Long afterId = 0L;
+            while (true) {
+                List<SalesLine> page = pages.after(afterBillId, afterId);
+                if (page.isEmpty()) {
+                    return target;
+                }
+                if (target.size + page.size() > target.capacity()) {
+                    target = target.grow(target.size + page.size());
+                }
+                for (SalesLine line : page) {
+                    int row = target.size;
+                    target.set(row, line);
+                    billRows.computeIfAbsent(line.getBillId(), id -> new int[]{row, 0})[1]++;
+                    target.size = row + 1;
+                }
+                SalesLine last = page.get(page.size() - 1);
+                afterBillId = last.getBillId();
+                afterId = last.getId();
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.springboot.project.service;
+
+import org.springframework.stereotype.Component;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+import java.time.Duration;
+import java.util.Map;
+
+// Request coalescing for identical reads: concurrent callers with the same key share one
+// in-flight computation, which runs on the first caller's thread. With a TTL the result is
+// also reused for that long after it completes. Shared results must be treated as read-only.
+@Component
+public class SingleFlight {
+
+    private final Map<String, Flight> flights = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public SingleFlight(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Duration ttl, Supplier<T> loader) {
+        Flight candidate = new Flight();
+        while (true) {
+            Flight flight = flights.putIfAbsent(key, candidate);
+            if (flight == null) {
+                count(key, "leader");
+                return (T) lead(key, candidate, ttl, loader);
+            }
+            if (flight.isExpired()) {
+                flights.remove(key, flight);
+                continue;
+            }
+            count(key, flight.result.isDone() ? "cached" : "shared");
+            return (T) await(flight);
+        }
+    }
+
+    private Object lead(String key, Flight flight, Duration ttl, Supplier<?> loader) {
+        try {
+            Object value = loader.get();
+            flight.expiresAt = System.nanoTime() + ttl.toNanos();
+            flight.result.complete(value);
+            if (ttl.isZero() || ttl.isNegative()) {
+                flights.remove(key, flight);
+            }
+            return value;
+        } catch (RuntimeException | Error e) {
+            // Failures are never cached; waiting callers get the same exception
+            flights.remove(key, flight);
+            flight.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private Object await(Flight flight) {
+        try {
+            return flight.result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a shared read", e);
+        } catch (ExecutionException | CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private void count(String key, String outcome) {
+        int separator = key.indexOf(':');
+        String name = separator > 0 ? key.substring(0, separator) : key;
+        meterRegistry.counter("single.flight.calls", "name", name, "outcome", outcome).increment();
+    }
+
+    private static final class Flight {
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private volatile long expiresAt = Long.MAX_VALUE;
+
+        private boolean isExpired() {
+            return result.isDone() && System.nanoTime() - expiresAt >= 0;
+        }
+    }
+}
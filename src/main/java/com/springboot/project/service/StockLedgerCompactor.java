@@ -0,0 +1,84 @@
+package com.springboot.project.service;
+
+import com.springboot.project.repository.StockSnapshotRepository;
+import com.springboot.project.repository.StockMovementRepository;
+import com.springboot.project.repository.StockLedgerFenceRepository;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import com.springboot.project.entity.StockSnapshot;
+import org.springframework.stereotype.Service;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Folds the stock ledger into snapshots: one new snapshot per item that moved since the last
+// run, then items.stock_quantity (and with it status and the low-stock set) is brought in
+// line with the ledger. The stock is synced with a bulk update that leaves the item version
+// alone, so compaction never conflicts with an item edit. The exclusive lock on the ledger
+// fence waits for writers that are still to commit, so every movement up to the highest id
+// read after it is committed and none is left behind the new watermark.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StockLedgerCompactor {
+
+    private final StockMovementRepository stockMovementRepository;
+    private final StockSnapshotRepository stockSnapshotRepository;
+    private final StockLedgerService stockLedgerService;
+    private final ItemService itemService;
+    private final StockLedgerFenceRepository stockLedgerFenceRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Scheduled(fixedDelayString = "${app.stock-ledger.compact-interval-ms:30000}",
+               initialDelayString = "${app.stock-ledger.compact-interval-ms:30000}")
+    public void scheduledCompact() {
+        try {
+            int items = compact();
+            if (items > 0) {
+                log.debug("Compacted stock ledger for {} items", items);
+            }
+        } catch (Exception e) {
+            log.error("Stock ledger compaction failed", e);
+        }
+    }
+
+    // Returns the number of items that got a new snapshot
+    public int compact() {
+        return transactionTemplate.execute(status -> {
+            // First, so that MySQL's read view starts after the writers have committed
+            stockLedgerFenceRepository.lockExclusive();
+            Long from = stockSnapshotRepository.findWatermark();
+            Long to = stockMovementRepository.findLastId();
+            if (to <= from) {
+                return 0;
+            }
+            
+            Map<Long, Object[]> moved = new HashMap<>();
+            for (Object[] row : stockMovementRepository.sumByItemInRange(from, to)) {
+                moved.put((Long) row[0], row);
+            }
+            List<Long> itemIds = new ArrayList<>(moved.keySet());
+            
+            List<StockSnapshot> snapshots = new ArrayList<>(itemIds.size());
+            for (List<Long> batch : StockLedgerService.batches(itemIds)) {
+                Map<Long, Integer> previous = new HashMap<>();
+                for (Object[] row : stockSnapshotRepository.findLatestQuantities(batch)) {
+                    previous.put((Long) row[0], (Integer) row[1]);
+                }
+                for (Long itemId : batch) {
+                    Object[] row = moved.get(itemId);
+                    int quantity = previous.getOrDefault(itemId, 0) + ((Number) row[1]).intValue();
+                    snapshots.add(new StockSnapshot(itemId, to, quantity, (LocalDateTime) row[2]));
+                }
+            }
+            stockSnapshotRepository.saveAll(snapshots);
+            
+            itemService.syncStock(stockLedgerService.currentStock(itemIds));
+            return snapshots.size();
+        });
+    }
+}
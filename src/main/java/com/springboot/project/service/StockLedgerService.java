@@ -0,0 +1,174 @@
+package com.springboot.project.service;
+
+import com.springboot.project.repository.StockSnapshotRepository;
+import com.springboot.project.repository.StockMovementRepository;
+import com.springboot.project.repository.StockLedgerFenceRepository;
+import com.springboot.project.entity.StockMovement.MovementType;
+import org.springframework.transaction.annotation.Transactional;
+import com.springboot.project.repository.ItemRepository;
+import com.springboot.project.dto.StockMovementRequest;
+import com.springboot.project.entity.StockMovement;
+import com.springboot.project.entity.StockSnapshot;
+import org.springframework.stereotype.Service;
+import org.springframework.data.domain.Limit;
+import lombok.RequiredArgsConstructor;
+import java.time.LocalDateTime;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Stock movements are appended to the ledger and never touch the item row, so receipts and
+// sales of the same item do not contend. An item's stock is its latest snapshot plus the
+// movements after it; StockLedgerCompactor folds the ledger into new snapshots and copies
+// the result to items.stock_quantity, which therefore trails the ledger by one interval.
+// Writers hold a shared lock on the ledger fence until they commit (see fence()).
+@Service
+@RequiredArgsConstructor
+public class StockLedgerService {
+
+    private static final int QUERY_BATCH_SIZE = 500;
+
+    private final StockMovementRepository stockMovementRepository;
+    private final StockSnapshotRepository stockSnapshotRepository;
+    private final ItemRepository itemRepository;
+    private final StockLedgerFenceRepository stockLedgerFenceRepository;
+
+    @Transactional
+    public List<StockMovement> record(List<StockMovementRequest> requests) {
+        Set<Long> itemIds = new HashSet<>();
+        List<StockMovement> movements = new ArrayList<>(requests.size());
+        for (StockMovementRequest request : requests) {
+            if (request.getItemId() == null || request.getType() == null || request.getQuantity() == null) {
+                throw new RuntimeException("Every movement needs an item id, a type and a quantity");
+            }
+            int quantity = request.getQuantity();
+            if (request.getType() == MovementType.ADJUSTMENT ? quantity == 0 : quantity <= 0) {
+                throw new RuntimeException("Invalid quantity " + quantity + " for a " + request.getType()
+                        + " of item " + request.getItemId());
+            }
+            movements.add(new StockMovement(request.getItemId(), request.getType(),
+                    request.getType() == MovementType.SALE ? -quantity : quantity,
+                    request.getBillId(), request.getNote()));
+            itemIds.add(request.getItemId());
+        }
+        
+        Set<Long> existing = new HashSet<>();
+        for (List<Long> batch : batches(new ArrayList<>(itemIds))) {
+            existing.addAll(itemRepository.findExistingIds(batch));
+        }
+        itemIds.removeAll(existing);
+        if (!itemIds.isEmpty()) {
+            throw new RuntimeException("Items not found: " + itemIds);
+        }
+        fence();
+        return stockMovementRepository.saveAll(movements);
+    }
+
+    // Direct edits of items.stock_quantity are recorded as the change they make to the column
+    @Transactional
+    public void recordAdjustment(Long itemId, int quantity, String note) {
+        if (quantity != 0) {
+            fence();
+            stockMovementRepository.save(new StockMovement(itemId, MovementType.ADJUSTMENT, quantity, null, note));
+        }
+    }
+
+    // One adjustment per item with a non-zero quantity, e.g. the differences a stock-take found
+    @Transactional
+    public void recordAdjustments(Map<Long, Integer> quantities, String note) {
+        List<StockMovement> movements = new ArrayList<>();
+        quantities.forEach((itemId, quantity) -> {
+            if (quantity != 0) {
+                movements.add(new StockMovement(itemId, MovementType.ADJUSTMENT, quantity, null, note));
+            }
+        });
+        if (!movements.isEmpty()) {
+            fence();
+            stockMovementRepository.saveAll(movements);
+        }
+    }
+
+    // Ahead of ItemRepository.adjust, with the same arguments: one statement for the whole batch
+    @Transactional
+    public void recordBulkAdjustment(Collection<Long> itemIds, BigDecimal priceFactor, BigDecimal priceDelta,
+                                     int stockFactor, int stockDelta) {
+        fence();
+        stockMovementRepository.insertBulkAdjustments(itemIds, priceFactor, priceDelta, stockFactor, stockDelta,
+                MovementType.ADJUSTMENT, "Bulk adjustment", LocalDateTime.now());
+    }
+
+    // A bill's lines leave stock when it is paid and come back if a paid bill is reopened
+    @Transactional
+    public void recordBillSales(Collection<Long> billIds) {
+        if (!billIds.isEmpty()) {
+            fence();
+            stockMovementRepository.insertForBillLines(billIds, MovementType.SALE, -1, LocalDateTime.now());
+        }
+    }
+
+    @Transactional
+    public void recordBillReturns(Collection<Long> billIds) {
+        if (!billIds.isEmpty()) {
+            fence();
+            stockMovementRepository.insertForBillLines(billIds, MovementType.RETURN, 1, LocalDateTime.now());
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public int currentStock(Long itemId) {
+        return currentStock(List.of(itemId)).getOrDefault(itemId, 0);
+    }
+
+    // Latest snapshot plus the unfolded tail. Every movement up to the watermark is in some
+    // snapshot, so the tail of each item starts right after it.
+    @Transactional(readOnly = true)
+    public Map<Long, Integer> currentStock(Collection<Long> itemIds) {
+        Long watermark = stockSnapshotRepository.findWatermark();
+        Map<Long, Integer> stock = new HashMap<>();
+        for (List<Long> batch : batches(new ArrayList<>(itemIds))) {
+            for (Object[] row : stockSnapshotRepository.findLatestQuantities(batch)) {
+                stock.put((Long) row[0], (Integer) row[1]);
+            }
+            for (Object[] row : stockMovementRepository.sumByItemAfter(batch, watermark)) {
+                stock.merge((Long) row[0], ((Number) row[1]).intValue(), Integer::sum);
+            }
+        }
+        return stock;
+    }
+
+    // The last snapshot taken at or before the time, plus the movements after it up to that time
+    @Transactional(readOnly = true)
+    public int stockAsOf(Long itemId, LocalDateTime asOf) {
+        StockSnapshot snapshot = stockSnapshotRepository
+                .findFirstByItemIdAndAsOfLessThanEqualOrderByMovementIdDesc(itemId, asOf)
+                .orElse(null);
+        int base = snapshot != null ? snapshot.getQuantity() : 0;
+        long after = snapshot != null ? snapshot.getMovementId() : 0L;
+        return base + stockMovementRepository.sumForItemAfter(itemId, after, asOf).intValue();
+    }
+
+    @Transactional(readOnly = true)
+    public List<StockMovement> recentMovements(Long itemId, int limit) {
+        return stockMovementRepository.findByItemIdOrderByIdDesc(itemId, Limit.of(limit));
+    }
+
+    // Movement ids are taken before commit, so on H2 and MySQL a lower id can become visible
+    // after a higher one. Compaction waits for this lock before it reads the highest id, so
+    // it never folds past a movement that is still to commit.
+    private void fence() {
+        stockLedgerFenceRepository.lockShared();
+    }
+
+    static List<List<Long>> batches(List<Long> ids) {
+        List<List<Long>> batches = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += QUERY_BATCH_SIZE) {
+            batches.add(ids.subList(i, Math.min(i + QUERY_BATCH_SIZE, ids.size())));
+        }
+        return batches;
+    }
+}
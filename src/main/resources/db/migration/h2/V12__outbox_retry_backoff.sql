@@ -0,0 +1,5 @@
+-- Failed outbox events wait until next_attempt_at before they are dispatched again; null means now
+ALTER TABLE outbox_events ADD COLUMN next_attempt_at timestamp(6);
+
+-- The poll skips aggregates with an event that is waiting
+CREATE INDEX idx_outbox_events_aggregate ON outbox_events (aggregate_type, aggregate_id, id);
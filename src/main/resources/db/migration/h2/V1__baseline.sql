@@ -0,0 +1,64 @@
+-- Baseline schema for H2 (file mode). Mirrors the SQLite baseline; tables written in
+-- bulk get a sequence so Hibernate can batch their inserts (see META-INF/orm-sequences.xml).
+
+CREATE TABLE users (
+    id bigint generated by default as identity,
+    email varchar(255) not null unique,
+    name varchar(255) not null,
+    password varchar(255) not null,
+    username varchar(255) not null unique,
+    primary key (id)
+);
+
+CREATE TABLE customers (
+    id bigint generated by default as identity,
+    account_number varchar(255) unique,
+    address varchar(255) not null,
+    created_at timestamp(6),
+    email varchar(255),
+    name varchar(255) not null,
+    telephone varchar(255) not null,
+    primary key (id)
+);
+
+CREATE TABLE items (
+    id bigint generated by default as identity,
+    created_at timestamp(6),
+    description varchar(255),
+    item_code varchar(255) unique,
+    name varchar(255) not null unique,
+    price numeric(10,2) not null,
+    status varchar(255) check (status in ('ACTIVE','INACTIVE','OUT_OF_STOCK')),
+    stock_quantity integer not null,
+    primary key (id)
+);
+
+CREATE TABLE bills (
+    id bigint generated by default as identity,
+    bill_number varchar(255) unique,
+    created_at timestamp(6),
+    discount_amount numeric(10,2),
+    final_amount numeric(10,2),
+    paid_at timestamp(6),
+    status varchar(255) check (status in ('DRAFT','CONFIRMED','PAID','CANCELLED')),
+    tax_amount numeric(10,2),
+    total_amount numeric(10,2),
+    customer_id bigint not null,
+    primary key (id)
+);
+
+CREATE TABLE bill_items (
+    id bigint generated by default as identity,
+    quantity integer,
+    total_price numeric(10,2),
+    unit_price numeric(10,2),
+    bill_id bigint not null,
+    item_id bigint not null,
+    primary key (id)
+);
+
+-- Increments match the allocation size of the pooled generators
+CREATE SEQUENCE customers_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE bills_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE bill_items_seq START WITH 1 INCREMENT BY 50;
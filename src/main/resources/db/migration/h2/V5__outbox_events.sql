@@ -0,0 +1,18 @@
+-- Transactional outbox for billing and inventory events
+CREATE TABLE outbox_events (
+    id bigint generated by default as identity,
+    aggregate_type varchar(255) not null,
+    aggregate_id bigint not null,
+    event_type varchar(255) not null,
+    payload varchar(4000),
+    created_at timestamp(6) not null,
+    processed_at timestamp(6),
+    attempts integer not null default 0,
+    last_error varchar(1000),
+    primary key (id)
+);
+
+CREATE SEQUENCE outbox_events_seq START WITH 1 INCREMENT BY 50;
+
+-- H2 has no partial indexes; pending events are found by (processed_at IS NULL, id)
+CREATE INDEX idx_outbox_events_pending ON outbox_events (processed_at, id);
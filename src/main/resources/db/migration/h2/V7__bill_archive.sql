@@ -0,0 +1,30 @@
+-- Cold storage for PAID and CANCELLED bills past the archive age (BillArchiveService).
+-- Rows keep their original ids; the hot tables only hold recent and open bills.
+CREATE TABLE bills_archive (
+    id bigint not null,
+    bill_number varchar(255),
+    customer_id bigint not null,
+    total_amount numeric(10,2),
+    tax_amount numeric(10,2),
+    discount_amount numeric(10,2),
+    final_amount numeric(10,2),
+    status varchar(255),
+    created_at timestamp(6),
+    paid_at timestamp(6),
+    archived_at timestamp(6) not null,
+    primary key (id)
+);
+
+CREATE TABLE bill_items_archive (
+    id bigint not null,
+    bill_id bigint not null,
+    item_id bigint not null,
+    quantity integer,
+    unit_price numeric(10,2),
+    total_price numeric(10,2),
+    primary key (id)
+);
+
+CREATE INDEX idx_bills_archive_customer_created_at ON bills_archive (customer_id, created_at);
+CREATE INDEX idx_bills_archive_status_created_at ON bills_archive (status, created_at);
+CREATE INDEX idx_bill_items_archive_bill_id ON bill_items_archive (bill_id);
@@ -0,0 +1,2 @@
+-- Per-item reorder point; 10 was the dashboard's fixed low-stock threshold
+ALTER TABLE items ADD COLUMN reorder_threshold integer not null default 10;
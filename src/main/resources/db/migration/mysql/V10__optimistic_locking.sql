@@ -0,0 +1,4 @@
+-- Version columns for optimistic locking of bills, items and customers
+ALTER TABLE bills ADD COLUMN version bigint not null default 0;
+ALTER TABLE items ADD COLUMN version bigint not null default 0;
+ALTER TABLE customers ADD COLUMN version bigint not null default 0;
@@ -0,0 +1,31 @@
+-- Append-only stock ledger (StockLedgerService). items.stock_quantity is refreshed from
+-- snapshot + later movements by compaction; direct stock edits are recorded as adjustments.
+CREATE TABLE stock_movements (
+    id bigint not null auto_increment,
+    item_id bigint not null,
+    movement_type varchar(20) not null,
+    quantity integer not null,
+    bill_id bigint,
+    note varchar(255),
+    created_at datetime(6) not null,
+    primary key (id)
+) engine=InnoDB;
+
+CREATE INDEX idx_stock_movements_item_id ON stock_movements (item_id, id);
+CREATE INDEX idx_stock_movements_bill_id ON stock_movements (bill_id);
+
+CREATE TABLE stock_snapshots (
+    id bigint not null auto_increment,
+    item_id bigint not null,
+    movement_id bigint not null,
+    quantity integer not null,
+    as_of datetime(6) not null,
+    primary key (id)
+) engine=InnoDB;
+
+CREATE UNIQUE INDEX idx_stock_snapshots_item_movement ON stock_snapshots (item_id, movement_id);
+CREATE INDEX idx_stock_snapshots_movement_id ON stock_snapshots (movement_id);
+
+-- Opening balances: the current stock of every item, before any ledger movement
+INSERT INTO stock_snapshots (item_id, movement_id, quantity, as_of)
+SELECT id, 0, stock_quantity, COALESCE(created_at, TIMESTAMP '1970-01-01 00:00:00') FROM items;
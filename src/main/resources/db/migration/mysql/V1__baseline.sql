@@ -0,0 +1,57 @@
+-- Baseline schema for MySQL (InnoDB). Mirrors the SQLite baseline.
+
+CREATE TABLE users (
+    id bigint not null auto_increment,
+    email varchar(255) not null unique,
+    name varchar(255) not null,
+    password varchar(255) not null,
+    username varchar(255) not null unique,
+    primary key (id)
+) engine=InnoDB;
+
+CREATE TABLE customers (
+    id bigint not null auto_increment,
+    account_number varchar(255) unique,
+    address varchar(255) not null,
+    created_at datetime(6),
+    email varchar(255),
+    name varchar(255) not null,
+    telephone varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+CREATE TABLE items (
+    id bigint not null auto_increment,
+    created_at datetime(6),
+    description varchar(255),
+    item_code varchar(255) unique,
+    name varchar(255) not null unique,
+    price decimal(10,2) not null,
+    status varchar(255) check (status in ('ACTIVE','INACTIVE','OUT_OF_STOCK')),
+    stock_quantity integer not null,
+    primary key (id)
+) engine=InnoDB;
+
+CREATE TABLE bills (
+    id bigint not null auto_increment,
+    bill_number varchar(255) unique,
+    created_at datetime(6),
+    discount_amount decimal(10,2),
+    final_amount decimal(10,2),
+    paid_at datetime(6),
+    status varchar(255) check (status in ('DRAFT','CONFIRMED','PAID','CANCELLED')),
+    tax_amount decimal(10,2),
+    total_amount decimal(10,2),
+    customer_id bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+CREATE TABLE bill_items (
+    id bigint not null auto_increment,
+    quantity integer,
+    total_price decimal(10,2),
+    unit_price decimal(10,2),
+    bill_id bigint not null,
+    item_id bigint not null,
+    primary key (id)
+) engine=InnoDB;
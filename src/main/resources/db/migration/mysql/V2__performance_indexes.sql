@@ -0,0 +1,25 @@
+-- Indexes for the repository queries and the sortable list pages.
+
+-- BillRepository.countByStatus / findByStatus, and PAID revenue by date range
+CREATE INDEX idx_bills_status_created_at ON bills (status, created_at);
+
+-- BillRepository.findBillsBetweenDates / findAllOrderByBillDateDesc, default sort of /bills
+CREATE INDEX idx_bills_created_at ON bills (created_at);
+
+-- BillRepository.findByCustomer / findByCustomerIdAndStatus
+CREATE INDEX idx_bills_customer_status ON bills (customer_id, status);
+
+-- Bill.billItems and lookups of the bills an item was sold on
+CREATE INDEX idx_bill_items_bill_id ON bill_items (bill_id);
+CREATE INDEX idx_bill_items_item_id ON bill_items (item_id);
+
+-- ItemRepository.findLowStockItems
+CREATE INDEX idx_items_stock_quantity ON items (stock_quantity);
+
+-- ItemRepository.findByStatus / findActiveItemsOrderByName
+CREATE INDEX idx_items_status_name ON items (status, name);
+
+-- createdAt sort on /items and /customers, default name sort on /customers
+CREATE INDEX idx_items_created_at ON items (created_at);
+CREATE INDEX idx_customers_name ON customers (name);
+CREATE INDEX idx_customers_created_at ON customers (created_at);
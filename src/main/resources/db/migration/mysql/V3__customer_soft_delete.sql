@@ -0,0 +1,2 @@
+-- Archived (soft-deleted) customers keep their row and bill history
+ALTER TABLE customers ADD COLUMN deleted_at datetime(6);
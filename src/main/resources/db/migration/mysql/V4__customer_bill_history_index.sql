@@ -0,0 +1,2 @@
+-- Keyset-paged bill history per customer (newest first)
+CREATE INDEX idx_bills_customer_created_at ON bills (customer_id, created_at);
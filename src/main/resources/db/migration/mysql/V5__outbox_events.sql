@@ -0,0 +1,17 @@
+-- Transactional outbox for billing and inventory events
+CREATE TABLE outbox_events (
+    id bigint not null auto_increment,
+    aggregate_type varchar(255) not null,
+    aggregate_id bigint not null,
+    event_type varchar(255) not null,
+    payload varchar(4000),
+    created_at datetime(6) not null,
+    processed_at datetime(6),
+    attempts integer not null default 0,
+    last_error varchar(1000),
+    primary key (id)
+) engine=InnoDB;
+
+-- MySQL has no partial indexes; pending events are found by (processed_at IS NULL, id),
+-- and the same index serves the retention cleanup
+CREATE INDEX idx_outbox_events_pending ON outbox_events (processed_at, id);
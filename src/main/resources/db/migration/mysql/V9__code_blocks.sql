@@ -0,0 +1,9 @@
+-- Next free number per code sequence; CodeAllocator reserves blocks of numbers from here
+CREATE TABLE code_blocks (
+    name varchar(32) not null,
+    next_value bigint not null,
+    primary key (name)
+);
+
+INSERT INTO code_blocks (name, next_value) VALUES ('customer', 1);
+INSERT INTO code_blocks (name, next_value) VALUES ('item', 1);
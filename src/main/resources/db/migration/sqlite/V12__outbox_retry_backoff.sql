@@ -0,0 +1,6 @@
+-- Failed outbox events wait until next_attempt_at before they are dispatched again; null means now
+ALTER TABLE outbox_events ADD COLUMN next_attempt_at timestamp;
+
+-- The poll skips aggregates with an event that is waiting; only those few rows are indexed
+CREATE INDEX idx_outbox_events_waiting ON outbox_events (aggregate_type, aggregate_id, id)
+    WHERE processed_at IS NULL AND next_attempt_at IS NOT NULL;
@@ -0,0 +1,8 @@
+-- One row that orders ledger writers against compaction: writers lock it shared until they
+-- commit, compaction locks it exclusively before it reads how far the ledger goes
+CREATE TABLE stock_ledger_fence (
+    id integer not null,
+    primary key (id)
+);
+
+INSERT INTO stock_ledger_fence (id) VALUES (1);
@@ -0,0 +1,58 @@
+-- Schema as previously generated by spring.jpa.hibernate.ddl-auto=update.
+-- Databases created that way are baselined at this version and skip it.
+
+CREATE TABLE users (
+    id integer,
+    email varchar(255) not null unique,
+    name varchar(255) not null,
+    password varchar(255) not null,
+    username varchar(255) not null unique,
+    primary key (id)
+);
+
+CREATE TABLE customers (
+    id integer,
+    account_number varchar(255) unique,
+    address varchar(255) not null,
+    created_at timestamp,
+    email varchar(255),
+    name varchar(255) not null,
+    telephone varchar(255) not null,
+    primary key (id)
+);
+
+CREATE TABLE items (
+    id integer,
+    created_at timestamp,
+    description varchar(255),
+    item_code varchar(255) unique,
+    name varchar(255) not null unique,
+    price numeric(10,2) not null,
+    status varchar(255) check (status in ('ACTIVE','INACTIVE','OUT_OF_STOCK')),
+    stock_quantity integer not null,
+    primary key (id)
+);
+
+CREATE TABLE bills (
+    id integer,
+    bill_number varchar(255) unique,
+    created_at timestamp,
+    discount_amount numeric(10,2),
+    final_amount numeric(10,2),
+    paid_at timestamp,
+    status varchar(255) check (status in ('DRAFT','CONFIRMED','PAID','CANCELLED')),
+    tax_amount numeric(10,2),
+    total_amount numeric(10,2),
+    customer_id bigint not null,
+    primary key (id)
+);
+
+CREATE TABLE bill_items (
+    id integer,
+    quantity integer,
+    total_price numeric(10,2),
+    unit_price numeric(10,2),
+    bill_id bigint not null,
+    item_id bigint not null,
+    primary key (id)
+);
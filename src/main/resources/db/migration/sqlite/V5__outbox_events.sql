@@ -0,0 +1,19 @@
+-- Transactional outbox for billing and inventory events
+CREATE TABLE outbox_events (
+    id integer,
+    aggregate_type varchar(255) not null,
+    aggregate_id bigint not null,
+    event_type varchar(255) not null,
+    payload varchar(4000),
+    created_at timestamp not null,
+    processed_at timestamp,
+    attempts integer not null default 0,
+    last_error varchar(1000),
+    primary key (id)
+);
+
+-- The dispatcher only ever scans pending events, in id order
+CREATE INDEX idx_outbox_events_pending ON outbox_events (id) WHERE processed_at IS NULL;
+
+-- Retention cleanup of processed events
+CREATE INDEX idx_outbox_events_processed_at ON outbox_events (processed_at);
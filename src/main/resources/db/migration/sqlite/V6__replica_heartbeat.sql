@@ -0,0 +1,8 @@
+-- Written on the primary and read back from each replica to measure replication lag
+CREATE TABLE replica_heartbeat (
+    id integer,
+    beat_at bigint not null,
+    primary key (id)
+);
+
+INSERT INTO replica_heartbeat (id, beat_at) VALUES (1, 0);
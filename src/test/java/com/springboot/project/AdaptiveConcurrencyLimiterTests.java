@@ -0,0 +1,100 @@
+package com.springboot.project;
+
+import com.springboot.project.filter.AdaptiveConcurrencyLimiter;
+import com.springboot.project.filter.AdaptiveConcurrencyLimiter.Priority;
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The limit grows while latency holds, shrinks when requests start queueing, and lower
+// priorities only get their share of it. Latencies are fed in directly, no clock involved.
+class AdaptiveConcurrencyLimiterTests {
+
+    private static final int WINDOW = 10;
+
+    @Test
+    void limitGrowsWhileLatencyHolds() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10);
+
+        window(limiter, 10, 1);
+
+        assertTrue(limiter.getLimit() > 10, "Limit stayed at " + limiter.getLimit());
+    }
+
+    @Test
+    void limitDoesNotGrowWhenLittleOfItIsUsed() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10);
+
+        window(limiter, 1, 1);
+
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    void limitShrinksWhenLatencyRises() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10);
+        window(limiter, 10, 1);
+        int settled = limiter.getLimit();
+
+        window(limiter, settled, 20);
+
+        assertTrue(limiter.getLimit() < settled, "Limit did not shrink from " + settled);
+    }
+
+    @Test
+    void limitStaysWithinBounds() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10);
+        window(limiter, 10, 1);
+
+        for (int i = 0; i < 20; i++) {
+            window(limiter, limiter.getLimit(), 1000);
+        }
+
+        assertEquals(4, limiter.getLimit());
+    }
+
+    @Test
+    void lowerPrioritiesOnlyGetTheirShare() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10);
+
+        assertEquals(5, acquireAll(limiter, Priority.SHEDDABLE));
+        assertEquals(3, acquireAll(limiter, Priority.NORMAL));
+        assertEquals(2, acquireAll(limiter, Priority.CRITICAL));
+        assertEquals(10, limiter.getInflight());
+
+        limiter.release(0, false);
+        assertFalse(limiter.tryAcquire(Priority.SHEDDABLE));
+        assertFalse(limiter.tryAcquire(Priority.NORMAL));
+        assertTrue(limiter.tryAcquire(Priority.CRITICAL));
+    }
+
+    private static AdaptiveConcurrencyLimiter limiter(int initialLimit) {
+        // Tolerance 1.5, no smoothing, normal share 0.8, sheddable share 0.5
+        return new AdaptiveConcurrencyLimiter(initialLimit, 4, 100, 1.5, 1.0, 0.8, 0.5);
+    }
+
+    // One window of samples at the given latency, with up to `concurrency` requests in flight
+    private static void window(AdaptiveConcurrencyLimiter limiter, int concurrency, long rttMillis) {
+        for (int sent = 0; sent < WINDOW; ) {
+            int batch = Math.min(concurrency, WINDOW - sent);
+            for (int i = 0; i < batch; i++) {
+                assertTrue(limiter.tryAcquire(Priority.CRITICAL));
+            }
+            for (int i = 0; i < batch; i++) {
+                limiter.release(TimeUnit.MILLISECONDS.toNanos(rttMillis), true);
+            }
+            sent += batch;
+        }
+    }
+
+    private static int acquireAll(AdaptiveConcurrencyLimiter limiter, Priority priority) {
+        int acquired = 0;
+        while (limiter.tryAcquire(priority)) {
+            acquired++;
+        }
+        return acquired;
+    }
+}
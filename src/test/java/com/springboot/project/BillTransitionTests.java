@@ -0,0 +1,127 @@
+package com.springboot.project;
+
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import com.springboot.project.dto.BillStatusTransitionRequest;
+import com.springboot.project.dto.BillStatusTransitionResult;
+import com.springboot.project.service.StockLedgerService;
+import org.springframework.test.context.ActiveProfiles;
+import com.springboot.project.service.CustomerService;
+import com.springboot.project.service.BillService;
+import com.springboot.project.service.ItemService;
+import com.springboot.project.entity.BillItem;
+import com.springboot.project.entity.Customer;
+import com.springboot.project.entity.Item;
+import com.springboot.project.entity.Bill;
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// A bulk transition only reports, announces and sells the bills its own update moved; a bill
+// another request moved at the same time is not counted a second time.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:bill-transitions;DB_CLOSE_DELAY=-1",
+        "app.receipts.dir=target/bill-transition-receipts"
+})
+@ActiveProfiles("h2")
+class BillTransitionTests {
+
+    @Autowired
+    private BillService billService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private StockLedgerService stockLedgerService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void transitionPaysConfirmedBills() {
+        Item item = newItem();
+        Bill bill = newConfirmedBill(item);
+
+        BillStatusTransitionResult result = billService.transitionBills(paid(bill));
+
+        assertEquals(BillStatusTransitionResult.Outcome.TRANSITIONED, result.getOutcomes().get(bill.getId()));
+        assertEquals(Bill.BillStatus.PAID, billService.findBillById(bill.getId()).orElseThrow().getStatus());
+        assertEquals(99, stockLedgerService.currentStock(item.getId()));
+    }
+
+    @Test
+    void billPaidConcurrentlyIsNotTransitionedAgain() throws Exception {
+        Item item = newItem();
+        Bill bill = newConfirmedBill(item);
+
+        CountDownLatch paid = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> payment = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            billService.payBill(bill.getId());
+            paid.countDown();
+            await(release);
+        }));
+        assertTrue(paid.await(10, TimeUnit.SECONDS));
+
+        CompletableFuture<BillStatusTransitionResult> transition =
+                CompletableFuture.supplyAsync(() -> billService.transitionBills(paid(bill)));
+        Thread.sleep(200);
+        assertFalse(transition.isDone(), "Transition read a bill another request was still paying");
+        release.countDown();
+        payment.get(10, TimeUnit.SECONDS);
+
+        BillStatusTransitionResult result = transition.get(10, TimeUnit.SECONDS);
+        assertEquals(0, result.getTransitioned());
+        assertTrue(result.getOutcomes().get(bill.getId()) != BillStatusTransitionResult.Outcome.TRANSITIONED);
+        assertEquals(99, stockLedgerService.currentStock(item.getId()));
+    }
+
+    private Item newItem() {
+        return itemService.saveItem(new Item(null, "Transition item " + System.nanoTime(), new BigDecimal("2.00"), 100, null));
+    }
+
+    private Bill newConfirmedBill(Item item) {
+        Customer customer = customerService.saveCustomer(new Customer(null, "Transition customer", "Street", "0775555555", null));
+        Bill bill = new Bill();
+        bill.setCustomer(customer);
+        BillItem line = new BillItem();
+        line.setBill(bill);
+        line.setItem(item);
+        line.setQuantity(1);
+        line.setUnitPrice(item.getPrice());
+        line.setTotalPrice(item.getPrice());
+        bill.setBillItems(new ArrayList<>(List.of(line)));
+        bill.setTotalAmount(item.getPrice());
+        bill.setFinalAmount(item.getPrice());
+        Bill saved = billService.saveBill(bill);
+        return billService.confirmBill(saved.getId());
+    }
+
+    private static BillStatusTransitionRequest paid(Bill bill) {
+        BillStatusTransitionRequest request = new BillStatusTransitionRequest();
+        request.setTargetStatus(Bill.BillStatus.PAID);
+        request.setBillIds(List.of(bill.getId()));
+        return request;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.springboot.project;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import com.springboot.project.repository.CodeBlockRepository;
+import org.springframework.test.context.ActiveProfiles;
+import com.springboot.project.service.CodeAllocator;
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Account numbers stay unique while many threads, on this node and on a second one sharing
+// the same code_blocks row, run through several small blocks at once.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:code-allocator;DB_CLOSE_DELAY=-1",
+        "app.receipts.dir=target/code-allocator-receipts",
+        "app.codes.block-size=10"
+})
+@ActiveProfiles("h2")
+class CodeAllocatorTests {
+
+    private static final int THREADS = 8;
+    private static final int CODES_PER_THREAD = 50;
+
+    @Autowired
+    private CodeAllocator codeAllocator;
+
+    @Autowired
+    private CodeBlockRepository codeBlockRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void concurrentAccountNumbersAreUniqueAcrossBlocks() throws Exception {
+        CodeAllocator otherNode = new CodeAllocator(codeBlockRepository, transactionManager, 10);
+        Set<String> numbers = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<CompletableFuture<Void>> threads = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                CodeAllocator allocator = i % 2 == 0 ? codeAllocator : otherNode;
+                threads.add(CompletableFuture.runAsync(() -> {
+                    for (int n = 0; n < CODES_PER_THREAD; n++) {
+                        numbers.add(allocator.nextAccountNumber());
+                    }
+                }, executor));
+            }
+            CompletableFuture.allOf(threads.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdown();
+            otherNode.shutdown();
+        }
+
+        assertEquals(THREADS * CODES_PER_THREAD, numbers.size());
+    }
+}
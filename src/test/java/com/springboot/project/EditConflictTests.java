@@ -0,0 +1,147 @@
+package com.springboot.project;
+
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.MockMvc;
+import com.springboot.project.service.CustomerService;
+import com.springboot.project.service.BillService;
+import com.springboot.project.service.ItemService;
+import com.springboot.project.entity.BillItem;
+import com.springboot.project.entity.Customer;
+import com.springboot.project.entity.Item;
+import com.springboot.project.entity.Bill;
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Edit forms carry the version they were rendered with. The entity is still managed by the
+// request's session (open-in-view), so a form based on an older version has to be rejected
+// by the service's version check instead of overwriting the newer row.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:edit-conflicts;DB_CLOSE_DELAY=-1",
+        "app.receipts.dir=target/edit-conflict-receipts"
+})
+@ActiveProfiles("h2")
+@AutoConfigureMockMvc
+@WithMockUser
+class EditConflictTests {
+
+    private static final String CONFLICT = "changed by someone else";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private BillService billService;
+
+    @Test
+    void staleItemFormIsRejected() throws Exception {
+        Item item = itemService.saveItem(new Item(null, "Conflict item " + System.nanoTime(), new BigDecimal("5.00"), 100, null));
+        itemService.updatePrice(item.getId(), new BigDecimal("6.00"));
+
+        String error = flash(post("/items/" + item.getId() + "/edit")
+                .param("version", String.valueOf(item.getVersion()))
+                .param("name", "Stale name")
+                .param("price", "9.99")
+                .param("stockQuantity", "100")
+                .param("reorderThreshold", "10")
+                .param("status", "ACTIVE"), "error");
+
+        assertTrue(error != null && error.contains(CONFLICT), "Expected a conflict, got " + error);
+        Item current = itemService.findItemById(item.getId()).orElseThrow();
+        assertEquals(item.getName(), current.getName());
+        assertEquals(0, new BigDecimal("6.00").compareTo(current.getPrice()));
+        assertEquals(item.getVersion() + 1, current.getVersion());
+    }
+
+    @Test
+    void currentItemFormIsSaved() throws Exception {
+        Item item = itemService.saveItem(new Item(null, "Current item " + System.nanoTime(), new BigDecimal("5.00"), 100, null));
+
+        String success = flash(post("/items/" + item.getId() + "/edit")
+                .param("version", String.valueOf(item.getVersion()))
+                .param("name", item.getName())
+                .param("price", "7.50")
+                .param("stockQuantity", "100")
+                .param("reorderThreshold", "10")
+                .param("status", "ACTIVE"), "success");
+
+        assertTrue(success != null, "Expected the edit to be saved");
+        assertEquals(0, new BigDecimal("7.50").compareTo(itemService.findItemById(item.getId()).orElseThrow().getPrice()));
+    }
+
+    @Test
+    void staleCustomerFormIsRejected() throws Exception {
+        Customer customer = customerService.saveCustomer(new Customer(null, "Conflict customer", "Street", "0773333333", null));
+        customerService.updateCustomerAddress(customer.getId(), "New street");
+
+        String error = flash(post("/customers/" + customer.getId() + "/edit")
+                .param("version", String.valueOf(customer.getVersion()))
+                .param("name", "Stale name")
+                .param("address", "Stale street")
+                .param("telephone", "0773333333"), "error");
+
+        assertTrue(error != null && error.contains(CONFLICT), "Expected a conflict, got " + error);
+        Customer current = customerService.findCustomerById(customer.getId()).orElseThrow();
+        assertEquals("Conflict customer", current.getName());
+        assertEquals("New street", current.getAddress());
+    }
+
+    @Test
+    void staleBillFormIsRejected() throws Exception {
+        Customer customer = customerService.saveCustomer(new Customer(null, "Bill conflict customer", "Street", "0774444444", null));
+        Item item = itemService.saveItem(new Item(null, "Bill conflict item " + System.nanoTime(), new BigDecimal("2.00"), 100, null));
+        Bill bill = billService.saveBill(newBill(customer, item));
+        billService.confirmBill(bill.getId());
+
+        String error = flash(post("/bills/" + bill.getId() + "/edit")
+                .param("version", String.valueOf(bill.getVersion()))
+                .param("customer", String.valueOf(customer.getId()))
+                .param("totalAmount", "1.00")
+                .param("finalAmount", "1.00")
+                .param("status", "PAID"), "error");
+
+        assertTrue(error != null && error.contains(CONFLICT), "Expected a conflict, got " + error);
+        Bill current = billService.findBillById(bill.getId()).orElseThrow();
+        assertEquals(Bill.BillStatus.CONFIRMED, current.getStatus());
+        assertEquals(0, new BigDecimal("2.00").compareTo(current.getFinalAmount()));
+    }
+
+    private String flash(MockHttpServletRequestBuilder request, String attribute) throws Exception {
+        MvcResult result = mockMvc.perform(request.with(csrf())).andReturn();
+        Object value = result.getFlashMap().get(attribute);
+        return value != null ? value.toString() : null;
+    }
+
+    private static Bill newBill(Customer customer, Item item) {
+        Bill bill = new Bill();
+        bill.setCustomer(customer);
+        BillItem line = new BillItem();
+        line.setBill(bill);
+        line.setItem(item);
+        line.setQuantity(1);
+        line.setUnitPrice(item.getPrice());
+        line.setTotalPrice(item.getPrice());
+        bill.setBillItems(new ArrayList<>(List.of(line)));
+        bill.setTotalAmount(item.getPrice());
+        bill.setFinalAmount(item.getPrice());
+        return bill;
+    }
+}
@@ -0,0 +1,96 @@
+package com.springboot.project;
+
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.TransactionDefinition;
+import com.springboot.project.service.OptimisticRetry;
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Conflicts are retried from a fresh transaction up to the configured number of attempts;
+// inside a caller's transaction they are not. checkVersion turns a stale edit into a conflict.
+class OptimisticRetryTests {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final TransactionTemplate transactionTemplate = new TransactionTemplate(new NoOpTransactionManager());
+    private final OptimisticRetry optimisticRetry = new OptimisticRetry(transactionTemplate, MAX_ATTEMPTS, 1);
+
+    @Test
+    void retrySucceedsAfterAConflict() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = optimisticRetry.execute(() -> {
+            if (attempts.incrementAndGet() < MAX_ATTEMPTS) {
+                throw new OptimisticLockingFailureException("conflict");
+            }
+            return "saved";
+        });
+
+        assertEquals("saved", result);
+        assertEquals(MAX_ATTEMPTS, attempts.get());
+    }
+
+    @Test
+    void retryGivesUpAfterMaxAttempts() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(OptimisticLockingFailureException.class, () -> optimisticRetry.execute(() -> {
+            attempts.incrementAndGet();
+            throw new OptimisticLockingFailureException("conflict");
+        }));
+
+        assertEquals(MAX_ATTEMPTS, attempts.get());
+    }
+
+    @Test
+    void conflictInsideACallersTransactionIsNotRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(OptimisticLockingFailureException.class, () -> transactionTemplate.executeWithoutResult(status ->
+                optimisticRetry.execute(() -> {
+                    attempts.incrementAndGet();
+                    throw new OptimisticLockingFailureException("conflict");
+                })));
+
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void checkVersionRejectsAStaleVersion() {
+        OptimisticLockingFailureException e = assertThrows(OptimisticLockingFailureException.class,
+                () -> OptimisticRetry.checkVersion("Item", 7L, 3L, 4L));
+
+        assertTrue(e.getMessage().contains("changed by someone else"), e.getMessage());
+        assertDoesNotThrow(() -> OptimisticRetry.checkVersion("Item", 7L, 4L, 4L));
+        assertDoesNotThrow(() -> OptimisticRetry.checkVersion("Item", 7L, null, 4L));
+    }
+
+    // Transactions without a resource behind them; only the synchronization state is real
+    private static final class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
@@ -3,7 +3,8 @@ package com.springboot.project;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+// Receipts rendered while the context starts stay out of the working copy's data/receipts
+@SpringBootTest(properties = "app.receipts.dir=target/application-test-receipts")
 class ProjectApplicationTests {
 
 	@Test
@@ -0,0 +1,245 @@
+package com.springboot.project;
+
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.BeforeAll;
+import com.springboot.project.service.BillArchiveService;
+import com.springboot.project.service.CustomerService;
+import com.springboot.project.service.BillService;
+import com.springboot.project.service.ItemService;
+import com.springboot.project.entity.BillItem;
+import com.springboot.project.entity.Customer;
+import com.springboot.project.entity.Item;
+import com.springboot.project.entity.Bill;
+import java.time.LocalDateTime;
+import java.math.BigDecimal;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// SQL statement budgets per endpoint, to catch N+1 queries on lazy associations before they
+// ship. Each endpoint is driven against a small and a large slice of the same seeded data
+// (a short and a long page, a customer with few and with many bills, one and many ids): both
+// have to stay within the endpoint's budget, and the large one may not need more statements
+// than the small one. Counts come from QueryCounter and only include the request's own thread.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:query-budget;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.springboot.project.QueryCounter",
+        // Receipts rendered for the seeded bills stay out of the working copy's data/receipts
+        "app.receipts.dir=target/query-budget-receipts"
+})
+@ActiveProfiles("h2")
+@AutoConfigureMockMvc
+@WithMockUser
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryBudgetTests {
+
+    private static final int PAGE_ITEMS = 30;
+    private static final int LINES_PER_BILL = 3;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BillService billService;
+
+    @Autowired
+    private BillArchiveService billArchiveService;
+
+    private final List<Item> items = new ArrayList<>();
+    private Customer fewBills;
+    private Customer manyBills;
+    private final List<Long> draftBills = new ArrayList<>();
+    private Long shortConfirmedBill;
+    private Long longConfirmedBill;
+
+    @BeforeAll
+    void seed() {
+        for (int i = 0; i < PAGE_ITEMS; i++) {
+            items.add(itemService.saveItem(new Item(null, "Budget item " + i, new BigDecimal("2.50"), 100, null)));
+        }
+        for (int i = 0; i < 25; i++) {
+            customerService.saveCustomer(new Customer(null, "Budget customer " + i, "Street " + i, "0770000" + String.format("%03d", i), null));
+        }
+        fewBills = customerService.saveCustomer(new Customer(null, "Budget few bills", "Street", "0771111111", null));
+        manyBills = customerService.saveCustomer(new Customer(null, "Budget many bills", "Street", "0772222222", null));
+
+        for (int i = 0; i < 2; i++) {
+            saveBill(fewBills, Bill.BillStatus.DRAFT, LINES_PER_BILL, null);
+        }
+        for (int i = 0; i < 22; i++) {
+            draftBills.add(saveBill(manyBills, Bill.BillStatus.DRAFT, LINES_PER_BILL, null).getId());
+        }
+        shortConfirmedBill = saveBill(manyBills, Bill.BillStatus.CONFIRMED, 1, null).getId();
+        longConfirmedBill = saveBill(manyBills, Bill.BillStatus.CONFIRMED, 20, null).getId();
+
+        // Settled long ago, so they end up in the archive
+        for (int i = 0; i < 25; i++) {
+            saveBill(manyBills, Bill.BillStatus.PAID, LINES_PER_BILL, LocalDateTime.now().minusYears(2));
+        }
+        billArchiveService.archiveOldBills();
+    }
+
+    Stream<Arguments> endpoints() {
+        Long archived = billArchiveService.findArchivedBills(PageRequest.of(0, 1))
+                .getContent().get(0).getId();
+        return Stream.of(
+                budget("GET /home", 8, get("/home"), get("/home")),
+                budget("GET /bills", 4, get("/bills?size=2"), get("/bills?size=20")),
+                budget("GET /customers", 2, get("/customers?size=2"), get("/customers?size=20")),
+                budget("GET /customers/{id}", 5,
+                        get("/customers/" + fewBills.getId()), get("/customers/" + manyBills.getId() + "?size=20")),
+                budget("GET /customers/{id}/bills", 2,
+                        get("/customers/" + fewBills.getId() + "/bills"), get("/customers/" + manyBills.getId() + "/bills")),
+                budget("GET /customers/{id}/summary", 2,
+                        get("/customers/" + fewBills.getId() + "/summary"), get("/customers/" + manyBills.getId() + "/summary")),
+                budget("GET /customers/search", 1,
+                        get("/customers/search?query=few"), get("/customers/search?query=Budget")),
+                budget("GET /items", 2, get("/items?size=2"), get("/items?size=20")),
+                budget("GET /items/search", 0, get("/items/search?query=item 1"), get("/items/search?query=budget&limit=20")),
+                budget("GET /items/low-stock", 0, get("/items/low-stock"), get("/items/low-stock")),
+                budget("GET /items/{id}/movements", 1,
+                        get("/items/" + items.get(0).getId() + "/movements?limit=1"),
+                        get("/items/" + items.get(0).getId() + "/movements?limit=50")),
+                budget("GET /bills/archive", 2, get("/bills/archive?size=2"), get("/bills/archive?size=20")),
+                budget("GET /bills/archive/{id}", 2, get("/bills/archive/" + archived), get("/bills/archive/" + archived)),
+                budget("GET /analytics/top-items", 1, get("/analytics/top-items?limit=2"), get("/analytics/top-items?limit=20")),
+                budget("POST /bills", 8, createBill(1), createBill(20)),
+                budget("POST /bills/{id}/pay", 5,
+                        post("/bills/" + shortConfirmedBill + "/pay"), post("/bills/" + longConfirmedBill + "/pay")),
+                budget("POST /bills/status", 4,
+                        transition(draftBills.subList(0, 2)), transition(draftBills.subList(2, 22))),
+                budget("POST /items/adjust", 8,
+                        adjust(items.subList(0, 2)), adjust(items.subList(2, 22))));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("endpoints")
+    void staysWithinBudget(String endpoint, int budget, RequestBuilder small, RequestBuilder large) throws Exception {
+        List<String> smallStatements = execute(small);
+        List<String> largeStatements = execute(large);
+
+        assertTrue(smallStatements.size() <= budget, () -> endpoint + " ran " + smallStatements.size()
+                + " statements on small data, budget is " + budget + describe(smallStatements));
+        assertTrue(largeStatements.size() <= budget, () -> endpoint + " ran " + largeStatements.size()
+                + " statements on large data, budget is " + budget + describe(largeStatements));
+        // Pooled sequences fetch a block of ids now and then, which is not growth
+        long smallCount = smallStatements.stream().filter(sql -> !isSequenceFetch(sql)).count();
+        long largeCount = largeStatements.stream().filter(sql -> !isSequenceFetch(sql)).count();
+        assertTrue(largeCount <= smallCount, () -> endpoint + " ran " + largeCount + " statements on large data but " + smallCount
+                + " on small data; the statement count grows with the data" + describe(largeStatements));
+    }
+
+    private List<String> execute(RequestBuilder request) throws Exception {
+        MvcResult result;
+        List<String> statements;
+        QueryCounter.start();
+        try {
+            result = mockMvc.perform(request).andReturn();
+        } finally {
+            statements = QueryCounter.stop();
+        }
+        int status = result.getResponse().getStatus();
+        assertTrue(status < 400, "Request failed with status " + status + ": " + result.getResponse().getContentAsString());
+        // Page controllers report failures through the model or a flash attribute, not the status
+        assertFalse(result.getModelAndView() != null && result.getModelAndView().getModel().containsKey("error"),
+                () -> "Request failed: " + result.getModelAndView().getModel().get("error"));
+        assertFalse(result.getFlashMap().containsKey("error"), () -> "Request failed: " + result.getFlashMap().get("error"));
+        return statements;
+    }
+
+    private Bill saveBill(Customer customer, Bill.BillStatus status, int lines, LocalDateTime createdAt) {
+        Bill bill = new Bill();
+        bill.setCustomer(customer);
+        bill.setStatus(status);
+        if (createdAt != null) {
+            bill.setCreatedAt(createdAt);
+        }
+        List<BillItem> billItems = new ArrayList<>();
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < lines; i++) {
+            BillItem line = new BillItem();
+            line.setBill(bill);
+            line.setItem(items.get(i % items.size()));
+            line.setQuantity(1);
+            line.setUnitPrice(new BigDecimal("2.50"));
+            line.setTotalPrice(new BigDecimal("2.50"));
+            billItems.add(line);
+            total = total.add(line.getTotalPrice());
+        }
+        bill.setBillItems(billItems);
+        bill.setTotalAmount(total);
+        bill.setFinalAmount(total);
+        return billService.saveBill(bill);
+    }
+
+    private static Arguments budget(String endpoint, int budget, RequestBuilder small, RequestBuilder large) {
+        return Arguments.of(endpoint, budget, small, large);
+    }
+
+    private static RequestBuilder get(String uri) {
+        return MockMvcRequestBuilders.get(uri);
+    }
+
+    private static RequestBuilder post(String uri) {
+        return MockMvcRequestBuilders.post(uri).with(csrf());
+    }
+
+    private RequestBuilder createBill(int lines) {
+        var request = MockMvcRequestBuilders.post("/bills").with(csrf())
+                .param("customerId", String.valueOf(fewBills.getId()))
+                .param("status", "DRAFT");
+        for (int i = 0; i < lines; i++) {
+            request.param("itemIds", String.valueOf(items.get(i).getId()))
+                    .param("quantities", "1")
+                    .param("unitPrices", "2.50");
+        }
+        return request;
+    }
+
+    private static RequestBuilder transition(List<Long> billIds) {
+        return MockMvcRequestBuilders.post("/bills/status").with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"targetStatus\":\"CONFIRMED\",\"billIds\":" + billIds + "}");
+    }
+
+    private static RequestBuilder adjust(List<Item> targets) {
+        return MockMvcRequestBuilders.post("/items/adjust").with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"priceMode\":\"PERCENT\",\"priceValue\":5,\"stockMode\":\"DELTA\",\"stockValue\":-1,\"itemIds\":"
+                        + targets.stream().map(item -> String.valueOf(item.getId())).collect(Collectors.joining(",", "[", "]"))
+                        + "}");
+    }
+
+    private static boolean isSequenceFetch(String sql) {
+        return sql.startsWith("select next value for");
+    }
+
+    private static String describe(List<String> statements) {
+        return statements.stream().collect(Collectors.joining("\n  ", ":\n  ", ""));
+    }
+}
@@ -0,0 +1,121 @@
+package com.springboot.project;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.springboot.project.service.SingleFlight;
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Concurrent callers of one key share a single computation and its outcome, failures
+// included; a completed result is only reused within its TTL.
+class SingleFlightTests {
+
+    private static final int CALLERS = 8;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlight singleFlight = new SingleFlight(meterRegistry);
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+    @Test
+    void concurrentCallersShareOneComputation() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Object value = new Object();
+
+        List<CompletableFuture<Object>> callers = callConcurrently(() -> {
+            loads.incrementAndGet();
+            await(release);
+            return value;
+        });
+        release.countDown();
+
+        for (CompletableFuture<Object> caller : callers) {
+            assertSame(value, caller.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void failureReachesEveryWaiter() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("query failed");
+
+        List<CompletableFuture<Object>> callers = callConcurrently(() -> {
+            loads.incrementAndGet();
+            await(release);
+            throw failure;
+        });
+        release.countDown();
+
+        for (CompletableFuture<Object> caller : callers) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> caller.get(10, TimeUnit.SECONDS));
+            assertSame(failure, e.getCause());
+        }
+        assertEquals(1, loads.get());
+
+        // Failures are not cached: the next call computes again
+        assertEquals("retried", singleFlight.execute("page:1", Duration.ofMinutes(1), () -> "retried"));
+    }
+
+    @Test
+    void resultIsReusedUntilTheTtlExpires() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<Integer> loader = loads::incrementAndGet;
+        Duration ttl = Duration.ofMillis(200);
+
+        assertEquals(1, singleFlight.execute("page:1", ttl, loader));
+        assertEquals(1, singleFlight.execute("page:1", ttl, loader));
+        Thread.sleep(300);
+        assertEquals(2, singleFlight.execute("page:1", ttl, loader));
+    }
+
+    @Test
+    void resultWithoutTtlIsNotReused() {
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals(1, singleFlight.execute("page:1", Duration.ZERO, loads::incrementAndGet));
+        assertEquals(2, singleFlight.execute("page:1", Duration.ZERO, loads::incrementAndGet));
+    }
+
+    // Starts CALLERS calls of one key and returns once all but the leader are waiting on it
+    private List<CompletableFuture<Object>> callConcurrently(Supplier<Object> loader) throws InterruptedException {
+        List<CompletableFuture<Object>> callers = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            callers.add(CompletableFuture.supplyAsync(
+                    () -> singleFlight.execute("page:1", Duration.ZERO, loader), executor));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (sharedCalls() < CALLERS - 1 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(sharedCalls() == CALLERS - 1, "Only " + sharedCalls() + " callers joined the computation");
+        return callers;
+    }
+
+    private double sharedCalls() {
+        return meterRegistry.counter("single.flight.calls", "name", "page", "outcome", "shared").count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.springboot.project;
+
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import com.springboot.project.service.StockLedgerCompactor;
+import com.springboot.project.service.StockLedgerService;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import com.springboot.project.dto.StockMovementRequest;
+import com.springboot.project.dto.ItemBulkAdjustmentRequest;
+import com.springboot.project.dto.ItemBulkAdjustmentResult;
+import com.springboot.project.repository.ItemRepository;
+import com.springboot.project.service.ItemService;
+import com.springboot.project.entity.StockMovement;
+import com.springboot.project.entity.Item;
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Stock edits and stock-takes have to reach the ledger, or the next compaction puts the old
+// stock back, and compaction must not fold past a movement that is still to commit.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:stock-ledger;DB_CLOSE_DELAY=-1",
+        "app.receipts.dir=target/stock-ledger-receipts",
+        "app.stock-ledger.compact-interval-ms=3600000"
+})
+@ActiveProfiles("h2")
+@AutoConfigureMockMvc
+@WithMockUser
+class StockLedgerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private StockLedgerService stockLedgerService;
+
+    @Autowired
+    private StockLedgerCompactor compactor;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void editedStockSurvivesCompaction() throws Exception {
+        Item item = newItem("Edited");
+        compactor.compact();
+
+        mockMvc.perform(post("/items/" + item.getId() + "/edit").with(csrf())
+                .param("version", String.valueOf(item.getVersion()))
+                .param("name", item.getName())
+                .param("price", "5.00")
+                .param("stockQuantity", "40")
+                .param("reorderThreshold", "10")
+                .param("status", "ACTIVE"));
+        sell(item, 1);
+        compactor.compact();
+
+        assertStock(item, 39);
+    }
+
+    @Test
+    void savingAChangedManagedItemRecordsTheEdit() {
+        Item item = newItem("Managed");
+        compactor.compact();
+
+        // The caller changes the managed entity before saveItem reads the previous stock
+        transactionTemplate.executeWithoutResult(status -> {
+            Item managed = itemRepository.findById(item.getId()).orElseThrow();
+            managed.setStockQuantity(40);
+            itemService.saveItem(managed);
+        });
+        sell(item, 1);
+        compactor.compact();
+
+        assertStock(item, 39);
+    }
+
+    @Test
+    void compactionWaitsForUncommittedMovements() throws Exception {
+        Item item = newItem("Uncommitted");
+        compactor.compact();
+
+        CountDownLatch recorded = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            sell(item, 3);
+            recorded.countDown();
+            await(release);
+        }));
+        assertTrue(recorded.await(10, TimeUnit.SECONDS));
+
+        CompletableFuture<Integer> compaction = CompletableFuture.supplyAsync(compactor::compact);
+        Thread.sleep(200);
+        assertFalse(compaction.isDone(), "Compaction ran while a ledger writer had not committed");
+        release.countDown();
+        writer.get(10, TimeUnit.SECONDS);
+        assertEquals(1, compaction.get(10, TimeUnit.SECONDS));
+
+        assertStock(item, 97);
+    }
+
+    @Test
+    void stockTakeSetsEachItemToItsOwnCount() {
+        Item counted = newItem("Counted");
+        Item emptied = newItem("Emptied");
+        sell(counted, 10);
+
+        ItemBulkAdjustmentRequest request = new ItemBulkAdjustmentRequest();
+        request.setCounts(Map.of(counted.getId(), 85, emptied.getId(), 0, -1L, 5));
+        ItemBulkAdjustmentResult result = itemService.adjustItems(request);
+        compactor.compact();
+
+        assertEquals(2, result.getAdjusted());
+        assertEquals(1, result.getOutOfStock());
+        assertEquals(ItemBulkAdjustmentResult.Outcome.NOT_FOUND, result.getOutcomes().get(-1L));
+        assertStock(counted, 85);
+        assertStock(emptied, 0);
+    }
+
+    @Test
+    void adjustmentWithoutSelectionIsRejected() {
+        Item item = newItem("Unselected");
+
+        ItemBulkAdjustmentRequest request = new ItemBulkAdjustmentRequest();
+        request.setStockMode(ItemBulkAdjustmentRequest.StockMode.SET);
+        request.setStockValue(0);
+        assertThrows(RuntimeException.class, () -> itemService.adjustItems(request));
+
+        assertStock(item, 100);
+    }
+
+    private Item newItem(String name) {
+        return itemService.saveItem(new Item(null, name + " " + System.nanoTime(), new BigDecimal("5.00"), 100, null));
+    }
+
+    private void sell(Item item, int quantity) {
+        StockMovementRequest sale = new StockMovementRequest();
+        sale.setItemId(item.getId());
+        sale.setType(StockMovement.MovementType.SALE);
+        sale.setQuantity(quantity);
+        stockLedgerService.record(List.of(sale));
+    }
+
+    private void assertStock(Item item, int expected) {
+        assertEquals(expected, stockLedgerService.currentStock(item.getId()));
+        assertEquals(expected, itemService.findItemById(item.getId()).orElseThrow().getStockQuantity());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}